@@ -0,0 +1,58 @@
+package cn.lucas.commandflow.benchmark;
+
+import cn.lucas.commandflow.annotation.Command;
+import cn.lucas.commandflow.annotation.SubCommand;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandResult;
+
+/**
+ * 基准测试使用的命令, 由注解处理器生成注册器
+ */
+public class BenchmarkCommands {
+    private static final CommandResult RESULT = CommandResult.success("ok");
+
+    @Command(name = "noop", aliases = {"n"})
+    public CommandResult noop() {
+        return RESULT;
+    }
+
+    @Command(name = "context")
+    public CommandResult context(CommandContext context) {
+        return context.getArgCount() > 0 ? RESULT : CommandResult.syntaxError("missing");
+    }
+
+    @Command(name = "array")
+    public CommandResult array(String[] args) {
+        return args.length > 0 ? RESULT : CommandResult.syntaxError("missing");
+    }
+
+    @Command(name = "secured", permission = "bench.secured")
+    public CommandResult secured() {
+        return RESULT;
+    }
+
+    @Command(name = "root")
+    public CommandResult root() {
+        return RESULT;
+    }
+
+    @SubCommand(name = "a", parent = "root")
+    public CommandResult a() {
+        return RESULT;
+    }
+
+    @SubCommand(name = "b", parent = "root a")
+    public CommandResult b() {
+        return RESULT;
+    }
+
+    @SubCommand(name = "c", parent = "root a b")
+    public CommandResult c() {
+        return RESULT;
+    }
+
+    @SubCommand(name = "d", parent = "root a b c")
+    public CommandResult d(CommandContext context) {
+        return RESULT;
+    }
+}
@@ -0,0 +1,86 @@
+package cn.lucas.commandflow.benchmark;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.model.CommandResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令方法调用基准, 覆盖三种参数形式、权限检查以及子命令逐级查找
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    private static final Object SENDER = new Object();
+
+    /**
+     * generated: 编译期生成的注册器; reflective: 运行时反射注册
+     */
+    @Param({"generated", "reflective"})
+    private String registrar;
+
+    private CommandFlow commandFlow;
+    /**
+     * 命令行在准备阶段拼接好, 以免字符串拼接计入每次操作的耗时和分配
+     */
+    private String noopCommand;
+    private String contextCommand;
+    private String arrayCommand;
+
+    @Setup
+    public void setup() {
+        commandFlow = new CommandFlow();
+        commandFlow.registerHandler(new BenchmarkCommands());
+        commandFlow.registerHandler(new ReflectiveBenchmarkCommands());
+        commandFlow.setPermissionChecker(sender -> sender == SENDER);
+        String prefix = "reflective".equals(registrar) ? "r-" : "";
+        noopCommand = prefix + "noop";
+        contextCommand = prefix + "context value";
+        arrayCommand = prefix + "array value";
+    }
+
+    @Benchmark
+    public CommandResult noArguments() {
+        return commandFlow.execute(noopCommand);
+    }
+
+    @Benchmark
+    public CommandResult contextArgument() {
+        return commandFlow.execute(contextCommand);
+    }
+
+    @Benchmark
+    public CommandResult arrayArgument() {
+        return commandFlow.execute(arrayCommand);
+    }
+
+    @Benchmark
+    public CommandResult permissionCheck() {
+        return commandFlow.execute("secured", SENDER);
+    }
+
+    @Benchmark
+    public CommandResult subCommandDepth1() {
+        return commandFlow.execute("root a");
+    }
+
+    @Benchmark
+    public CommandResult subCommandDepth4() {
+        return commandFlow.execute("root a b c d value");
+    }
+}
@@ -0,0 +1,72 @@
+package cn.lucas.commandflow.benchmark;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.model.CommandInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同规模注册表下的主命令与别名查找基准
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+    private static final int KEYS = 1024;
+
+    @Param({"10", "1000", "100000"})
+    private int registrySize;
+
+    private CommandFlow commandFlow;
+    private String[] names;
+    private String[] aliases;
+    private int next;
+
+    @Setup
+    public void setup() {
+        commandFlow = new CommandFlow();
+        commandFlow.registerHandler(new SyntheticCommands(registrySize));
+
+        Random random = new Random(42);
+        names = new String[KEYS];
+        aliases = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            int index = random.nextInt(registrySize);
+            names[i] = "cmd" + index;
+            aliases[i] = "c" + index;
+        }
+    }
+
+    @Benchmark
+    public CommandInfo lookupByName() {
+        return commandFlow.getCommand(names[next++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    public CommandInfo lookupByAlias() {
+        return commandFlow.getCommand(aliases[next++ & (KEYS - 1)]);
+    }
+
+    /**
+     * 包含解析与调用的完整执行路径
+     */
+    @Benchmark
+    public Object executeByName() {
+        return commandFlow.execute(names[next++ & (KEYS - 1)]);
+    }
+}
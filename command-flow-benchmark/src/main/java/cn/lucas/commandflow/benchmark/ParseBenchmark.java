@@ -0,0 +1,72 @@
+package cn.lucas.commandflow.benchmark;
+
+import cn.lucas.commandflow.model.CommandContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令行解析基准, 与旧版基于正则分割的实现对比
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"1", "8", "64"})
+    private int argCount;
+
+    private String line;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder("command");
+        for (int i = 0; i < argCount; i++) {
+            sb.append(' ').append("argument").append(i);
+        }
+        line = sb.toString();
+    }
+
+    /**
+     * 只解析命令名和参数数量, 不生成参数字符串
+     */
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        CommandContext context = new CommandContext(line);
+        blackhole.consume(context.getCommandName());
+        blackhole.consume(context.getArgCount());
+    }
+
+    /**
+     * 解析并生成全部参数
+     */
+    @Benchmark
+    public String[] tokenizeAndMaterialize() {
+        return new CommandContext(line).getArgs();
+    }
+
+    /**
+     * 旧版实现: trim后两次正则分割
+     */
+    @Benchmark
+    public void legacySplit(Blackhole blackhole) {
+        String rawCommand = line.trim();
+        String[] parts = rawCommand.split("\\s+", 2);
+        blackhole.consume(parts[0]);
+        blackhole.consume(parts.length > 1 ? parts[1].split("\\s+") : new String[0]);
+    }
+}
@@ -0,0 +1,27 @@
+package cn.lucas.commandflow.benchmark;
+
+import cn.lucas.commandflow.annotation.Command;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandResult;
+
+/**
+ * 基准测试使用的命令, 私有方法使注解处理器跳过该类, 运行时走反射注册
+ */
+public class ReflectiveBenchmarkCommands {
+    private static final CommandResult RESULT = CommandResult.success("ok");
+
+    @Command(name = "r-noop")
+    private CommandResult noop() {
+        return RESULT;
+    }
+
+    @Command(name = "r-context")
+    private CommandResult context(CommandContext context) {
+        return context.getArgCount() > 0 ? RESULT : CommandResult.syntaxError("missing");
+    }
+
+    @Command(name = "r-array")
+    private CommandResult array(String[] args) {
+        return args.length > 0 ? RESULT : CommandResult.syntaxError("missing");
+    }
+}
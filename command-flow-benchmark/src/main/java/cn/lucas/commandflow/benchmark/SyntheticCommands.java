@@ -0,0 +1,18 @@
+package cn.lucas.commandflow.benchmark;
+
+/**
+ * 批量生成的命令集合, 命令名为 cmd0..cmdN, 别名为 c0..cN
+ * <p>
+ * 由手写的 {@link SyntheticCommands_CommandRegistrar} 注册
+ */
+public class SyntheticCommands {
+    private final int count;
+
+    public SyntheticCommands(int count) {
+        this.count = count;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,24 @@
+package cn.lucas.commandflow.benchmark;
+
+import cn.lucas.commandflow.model.CommandInfo;
+import cn.lucas.commandflow.model.CommandResult;
+import cn.lucas.commandflow.registrar.CommandRegistrar;
+import cn.lucas.commandflow.registrar.CommandRegistration;
+
+/**
+ * {@link SyntheticCommands} 的注册器
+ */
+public final class SyntheticCommands_CommandRegistrar implements CommandRegistrar<SyntheticCommands> {
+    private static final CommandResult RESULT = CommandResult.success("ok");
+
+    @Override
+    public void register(SyntheticCommands handler, CommandRegistration registration) {
+        for (int i = 0; i < handler.getCount(); i++) {
+            registration.command(new CommandInfo.Builder()
+                    .name("cmd" + i)
+                    .aliases("c" + i)
+                    .handler(handler)
+                    .invoker(context -> RESULT));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package cn.lucas.commandflow.benchmark;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.model.CommandResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程共享同一个CommandFlow实例时的执行吞吐量
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThroughputBenchmark {
+    private CommandFlow commandFlow;
+
+    @Setup
+    public void setup() {
+        commandFlow = new CommandFlow();
+        commandFlow.registerHandler(new BenchmarkCommands());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CommandResult singleThread() {
+        return commandFlow.execute("context value");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CommandResult fourThreads() {
+        return commandFlow.execute("context value");
+    }
+}
@@ -0,0 +1,318 @@
+package cn.lucas.commandflow.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 命令注解处理器
+ * <p>
+ * 在编译期读取 {@code @Command} 与 {@code @SubCommand}, 为每个处理器类生成
+ * {@code <类名>_CommandRegistrar}, 以直接方法调用注册和执行命令.
+ * 无法生成直接调用的处理器类 (私有方法、不受支持的参数等) 将被跳过, 运行时回退到反射注册.
+ */
+@SupportedAnnotationTypes({
+        CommandProcessor.COMMAND,
+        CommandProcessor.SUB_COMMAND
+})
+public class CommandProcessor extends AbstractProcessor {
+    static final String COMMAND = "cn.lucas.commandflow.annotation.Command";
+    static final String SUB_COMMAND = "cn.lucas.commandflow.annotation.SubCommand";
+    static final String SUFFIX = "_CommandRegistrar";
+
+    private static final String CONTEXT = "cn.lucas.commandflow.model.CommandContext";
+    private static final String ARG = "cn.lucas.commandflow.annotation.Arg";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<ExecutableElement>> handlers = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                TypeElement handlerType = (TypeElement) element.getEnclosingElement();
+                List<ExecutableElement> methods = handlers.computeIfAbsent(handlerType, k -> new ArrayList<>());
+                if (!methods.contains(element)) {
+                    methods.add((ExecutableElement) element);
+                }
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : handlers.entrySet()) {
+            TypeElement handlerType = entry.getKey();
+            String reason = unsupportedReason(handlerType, entry.getValue());
+            if (reason != null) {
+                messager.printMessage(Diagnostic.Kind.NOTE,
+                        "CommandFlow: " + handlerType + " 将在运行时使用反射注册, 原因: " + reason, handlerType);
+                continue;
+            }
+
+            try {
+                writeRegistrar(handlerType, entry.getValue());
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "CommandFlow: 无法生成 " + handlerType + " 的注册器: " + e.getMessage(), handlerType);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 检查处理器类能否生成直接调用的注册器, 可以时返回null
+     */
+    private String unsupportedReason(TypeElement handlerType, List<ExecutableElement> methods) {
+        for (Element type = handlerType; type.getKind() != ElementKind.PACKAGE; type = type.getEnclosingElement()) {
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                return "类不可访问";
+            }
+            if (type instanceof TypeElement && ((TypeElement) type).getNestingKind() != NestingKind.TOP_LEVEL
+                    && !type.getModifiers().contains(Modifier.STATIC)) {
+                return "非静态内部类";
+            }
+        }
+
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                return "方法 " + method.getSimpleName() + " 为私有方法";
+            }
+            if (parameterShape(method) == null) {
+                return "方法 " + method.getSimpleName() + " 的参数不受支持";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 参数形式: "" 无参数, "context" 命令上下文, "args" 字符串数组, "typed" 类型化参数; 不支持时返回null
+     */
+    private String parameterShape(ExecutableElement method) {
+        List<? extends VariableElement> parameters = method.getParameters();
+        if (parameters.isEmpty()) {
+            return "";
+        }
+
+        TypeElement context = elements.getTypeElement(CONTEXT);
+        boolean typed = false;
+        for (VariableElement parameter : parameters) {
+            if (findAnnotation(parameter, ARG) != null) {
+                typed = true;
+            } else if (context == null || !types.isAssignable(context.asType(), parameter.asType())) {
+                typed = false;
+                break;
+            }
+        }
+        if (typed) {
+            return "typed";
+        }
+        if (parameters.size() > 1) {
+            return null;
+        }
+
+        TypeMirror type = parameters.get(0).asType();
+        if (context != null && types.isAssignable(context.asType(), type)) {
+            return "context";
+        }
+        if (type.getKind() == TypeKind.ARRAY
+                && types.isSameType(types.erasure(type), types.getArrayType(elements.getTypeElement("java.lang.String").asType()))) {
+            return "args";
+        }
+        return null;
+    }
+
+    private void writeRegistrar(TypeElement handlerType, List<ExecutableElement> methods) throws IOException {
+        PackageElement packageElement = elements.getPackageOf(handlerType);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(handlerType).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + SUFFIX;
+        String handlerName = types.erasure(handlerType.asType()).toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * 由 CommandProcessor 为 {@link ").append(handlerName).append("} 生成, 请勿修改\n */\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements cn.lucas.commandflow.registrar.CommandRegistrar<").append(handlerName).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public void register(").append(handlerName).append(" handler, ")
+                .append("cn.lucas.commandflow.registrar.CommandRegistration registration) {\n");
+
+        for (ExecutableElement method : methods) {
+            AnnotationMirror command = findAnnotation(method, COMMAND);
+            if (command != null) {
+                source.append("        registration.command(");
+                appendBuilder(source, handlerType, method, command);
+                source.append(");\n");
+            }
+        }
+        for (ExecutableElement method : methods) {
+            AnnotationMirror subCommand = findAnnotation(method, SUB_COMMAND);
+            if (subCommand != null) {
+                source.append("        registration.subCommand(")
+                        .append(literal(annotationValue(subCommand, "parent"))).append(", ");
+                appendBuilder(source, handlerType, method, subCommand);
+                source.append(");\n");
+            }
+        }
+        source.append("    }\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        JavaFileObject file = filer.createSourceFile(qualifiedName, handlerType);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * 生成命令信息构建器, 注解的每个属性对应构建器中同名的方法
+     */
+    private void appendBuilder(StringBuilder source, TypeElement handlerType, ExecutableElement method,
+                               AnnotationMirror annotation) {
+        source.append("new cn.lucas.commandflow.model.CommandInfo.Builder()");
+
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = elements.getElementValuesWithDefaults(annotation);
+        TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+        for (ExecutableElement attribute : ElementFilter.methodsIn(annotationType.getEnclosedElements())) {
+            String attributeName = attribute.getSimpleName().toString();
+            if ("parent".equals(attributeName)) {
+                continue;
+            }
+            AnnotationValue value = values.get(attribute);
+            if (value != null) {
+                source.append("\n                .").append(attributeName).append('(')
+                        .append(literal(value.getValue())).append(')');
+            }
+        }
+
+        source.append("\n                .handler(handler)");
+        if ("typed".equals(parameterShape(method))) {
+            // 类型化参数的转换器在运行时注册时确定, 这里只提供方法
+            source.append("\n                .method(cn.lucas.commandflow.registrar.CommandRegistrars.method(")
+                    .append(types.erasure(handlerType.asType())).append(".class, ")
+                    .append(elements.getConstantExpression(method.getSimpleName().toString()));
+            for (VariableElement parameter : method.getParameters()) {
+                source.append(", ").append(types.erasure(parameter.asType())).append(".class");
+            }
+            source.append("))");
+        } else {
+            source.append("\n                .invoker(").append(invoker(handlerType, method)).append(')');
+        }
+    }
+
+    private String invoker(TypeElement handlerType, ExecutableElement method) {
+        String target = method.getModifiers().contains(Modifier.STATIC)
+                ? types.erasure(handlerType.asType()).toString()
+                : "handler";
+        String shape = parameterShape(method);
+        String argument = "context".equals(shape) ? "context" : "args".equals(shape) ? "context.getArgs()" : "";
+        String call = target + "." + method.getSimpleName() + "(" + argument + ")";
+
+        String body;
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            body = call + "; return cn.lucas.commandflow.model.CommandResult.success();";
+        } else {
+            body = "return cn.lucas.commandflow.handler.MethodCommandHandler.toResult(" + call + ");";
+        }
+
+        if (method.getThrownTypes().isEmpty()) {
+            return "context -> { " + body + " }";
+        }
+        return "context -> { try { " + body + " } catch (RuntimeException e) { throw e; } "
+                + "catch (Exception e) { throw new IllegalStateException(e.getMessage(), e); } }";
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object annotationValue(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 将注解属性值转换为Java字面量
+     */
+    private String literal(Object value) {
+        if (value instanceof String) {
+            return elements.getConstantExpression(value);
+        }
+        if (value instanceof List) {
+            StringBuilder sb = new StringBuilder();
+            for (Object element : (List<?>) value) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(literal(((AnnotationValue) element).getValue()));
+            }
+            return sb.toString();
+        }
+        if (value instanceof VariableElement) {
+            VariableElement constant = (VariableElement) value;
+            return types.erasure(constant.getEnclosingElement().asType()) + "." + constant.getSimpleName();
+        }
+        if (value instanceof TypeMirror) {
+            return types.erasure((TypeMirror) value) + ".class";
+        }
+        return elements.getConstantExpression(value);
+    }
+}
@@ -0,0 +1,108 @@
+package cn.lucas.commandflow;
+
+import cn.lucas.commandflow.index.NameTrie;
+import cn.lucas.commandflow.model.CommandInfo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 命令补全器
+ * <p>
+ * 为一个发送者补全命令名称、别名和子命令名称, 不区分大小写. 补全器记住上一次输入在前缀树中的位置,
+ * 逐字符输入时只需从该位置继续向下查找. 补全器不是线程安全的, 每个控制台或连接应使用独立的实例.
+ */
+public final class CommandCompleter {
+    /**
+     * 默认最多返回的候选个数
+     */
+    public static final int DEFAULT_LIMIT = 50;
+
+    private final CommandFlow commandFlow;
+    private final Object sender;
+    private final Predicate<CommandInfo> visible;
+    private final int limit;
+
+    // 上一次补全的状态, 注册表快照或已输入的命令路径变化时失效
+    private CommandRegistry lastRegistry;
+    private String lastHead;
+    private String lastPrefix;
+    private NameTrie<CommandInfo> lastTrie;
+    private NameTrie.Position<CommandInfo> lastPosition;
+
+    CommandCompleter(CommandFlow commandFlow, Object sender, int limit) {
+        this.commandFlow = commandFlow;
+        this.sender = sender;
+        this.limit = limit;
+        this.visible = command -> command.isEnabled() && commandFlow.hasPermission(command, sender);
+    }
+
+    /**
+     * 补全输入的最后一个单词
+     *
+     * @param partialLine 已输入的命令行, 以空白结尾时列出下一级的所有候选
+     * @return 按字典序排列的候选名称, 最后一个单词不是命令或子命令时返回空列表
+     */
+    public List<String> complete(String partialLine) {
+        String line = partialLine.toLowerCase();
+        int tokenStart = line.length();
+        while (tokenStart > 0 && !Character.isWhitespace(line.charAt(tokenStart - 1))) {
+            tokenStart--;
+        }
+        String head = line.substring(0, tokenStart);
+        String prefix = line.substring(tokenStart);
+        CommandRegistry registry = commandFlow.getRegistry();
+
+        NameTrie<CommandInfo> trie;
+        NameTrie.Position<CommandInfo> position;
+        if (registry == lastRegistry && head.equals(lastHead) && prefix.startsWith(lastPrefix)) {
+            // 在上一次输入的基础上追加字符, 从上一次的位置继续查找
+            trie = lastTrie;
+            position = lastPosition == null || trie == null ? null
+                    : trie.find(lastPosition, prefix.substring(lastPrefix.length()));
+        } else {
+            trie = resolveLevel(registry, head);
+            position = trie == null ? null : trie.find(prefix);
+        }
+
+        lastRegistry = registry;
+        lastHead = head;
+        lastPrefix = prefix;
+        lastTrie = trie;
+        lastPosition = position;
+
+        if (position == null) {
+            return Collections.emptyList();
+        }
+        return trie.collect(position, visible, limit);
+    }
+
+    /**
+     * 解析已输入的命令路径, 返回下一级候选所在的前缀树
+     *
+     * @return 路径中有不存在、不可见或没有子命令的命令时返回null
+     */
+    private NameTrie<CommandInfo> resolveLevel(CommandRegistry registry, String head) {
+        String[] tokens = head.trim().split("\\s+");
+        if (tokens.length == 1 && tokens[0].isEmpty()) {
+            return registry.getNameIndex();
+        }
+
+        CommandInfo command = registry.lookup(tokens[0]);
+        for (int i = 1; command != null && i < tokens.length; i++) {
+            if (!visible.test(command)) {
+                return null;
+            }
+            command = command.findSubCommand(tokens[i]);
+        }
+        if (command == null || !visible.test(command) || command.getSubCommands().isEmpty()) {
+            return null;
+        }
+        return command.getSubCommandTrie();
+    }
+
+    public Object getSender() {
+        return sender;
+    }
+}
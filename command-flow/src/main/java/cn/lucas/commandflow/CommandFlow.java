@@ -0,0 +1,1240 @@
+package cn.lucas.commandflow;
+
+import cn.lucas.commandflow.cache.ResultCache;
+import cn.lucas.commandflow.converter.ArgumentConverter;
+import cn.lucas.commandflow.converter.ArgumentConverters;
+import cn.lucas.commandflow.executor.AsyncCommandExecutor;
+import cn.lucas.commandflow.executor.CommandExecutors;
+import cn.lucas.commandflow.executor.CommandTimeout;
+import cn.lucas.commandflow.executor.ExecutionLanes;
+import cn.lucas.commandflow.handler.CommandHandler;
+import cn.lucas.commandflow.handler.MethodCommandHandler;
+import cn.lucas.commandflow.handler.TypedCommandHandler;
+import cn.lucas.commandflow.interceptor.CommandInterceptor;
+import cn.lucas.commandflow.interceptor.CommandMatcher;
+import cn.lucas.commandflow.interceptor.InterceptorChain;
+import cn.lucas.commandflow.journal.CommandJournal;
+import cn.lucas.commandflow.limit.Bulkhead;
+import cn.lucas.commandflow.limit.RateLimiter;
+import cn.lucas.commandflow.limit.SenderRateLimiter;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandInfo;
+import cn.lucas.commandflow.model.CommandResult;
+import cn.lucas.commandflow.model.UsageSchema;
+import cn.lucas.commandflow.output.AsyncOutputHandler;
+import cn.lucas.commandflow.permission.PermissionChecker;
+import cn.lucas.commandflow.pipeline.Pipe;
+import cn.lucas.commandflow.pipeline.Pipeline;
+import cn.lucas.commandflow.registrar.CommandRegistrar;
+import cn.lucas.commandflow.registrar.CommandRegistrars;
+import cn.lucas.commandflow.registrar.CommandRegistration;
+import cn.lucas.commandflow.stats.CommandStats;
+
+import java.lang.reflect.Method;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CommandFlow核心类
+ */
+public class CommandFlow {
+    /**
+     * 未知命令时最多提示的相近命令个数
+     */
+    private static final int MAX_SUGGESTIONS = 3;
+    /**
+     * 管道线程的最大数量, 同时执行的管道中的上游命令达到上限时拒绝新的管道
+     */
+    private static final int MAX_PIPE_THREADS = 256;
+    /**
+     * 上游命令先于下游执行时管道最多缓冲的元素数
+     */
+    private static final int SEQUENTIAL_PIPE_CAPACITY = 65536;
+
+    private final Object registryLock = new Object();
+    /**
+     * 当前注册表快照, 注册时整体替换
+     */
+    private volatile CommandRegistry registry = CommandRegistry.EMPTY;
+    /**
+     * 已添加的拦截器, 在registryLock下整体替换
+     */
+    private List<InterceptorBinding> interceptors = Collections.emptyList();
+    private final ArgumentConverters converters = new ArgumentConverters();
+    private volatile Consumer<String> outputHandler = System.out::println;
+    private volatile PermissionChecker permissionChecker = (sender, permission) -> true;
+    private volatile AsyncCommandExecutor asyncExecutor;
+    /**
+     * 串行执行通道, 为null时不启用
+     */
+    private volatile ExecutionLanes executionLanes;
+    private volatile SenderRateLimiter senderRateLimiter;
+    /**
+     * 按分类的并发隔离舱, 键不区分大小写, 修改时整体替换
+     */
+    private volatile Map<String, Bulkhead> bulkheads = Collections.emptyMap();
+    private volatile CommandJournal journal;
+    private volatile ResultCache resultCache = new ResultCache();
+    private int batchParallelism = Runtime.getRuntime().availableProcessors();
+    private volatile int pipeCapacity = Pipe.DEFAULT_CAPACITY;
+    /**
+     * 执行管道中上游命令的线程池, 首次执行管道时创建; 管道中的命令互相等待, 不能与其他命令共用线程池
+     */
+    private volatile ExecutorService pipeExecutor;
+    private volatile boolean shouldContinue = true;
+    private boolean initialized = false;
+
+    /**
+     * 创建独立的CommandFlow实例
+     */
+    public CommandFlow() {
+    }
+
+    /**
+     * 获取全局默认实例
+     */
+    public static CommandFlow getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static final class InstanceHolder {
+        private static final CommandFlow INSTANCE = new CommandFlow();
+    }
+
+    /**
+     * 注册命令处理器
+     *
+     * @param handler 命令处理器对象
+     */
+    public void registerHandler(Object handler) {
+        registerHandlers(Collections.singletonList(handler));
+    }
+
+    /**
+     * 注册多个命令处理器, 所有命令在同一个注册表快照中生效
+     *
+     * @param handlers 命令处理器对象
+     */
+    public void registerHandlers(Collection<?> handlers) {
+        synchronized (registryLock) {
+            CommandRegistry.Editor editor = registry.edit();
+            for (Object handler : handlers) {
+                registerHandler(editor, handler);
+            }
+            registry = editor.build();
+        }
+    }
+
+    /**
+     * 注销处理器注册的所有命令和子命令
+     * <p>
+     * 注销在新的注册表快照中一次性生效, 正在执行的命令不受影响
+     *
+     * @param handler 命令处理器对象
+     * @return 是否注销了命令
+     */
+    public boolean unregisterHandler(Object handler) {
+        synchronized (registryLock) {
+            CommandRegistry.Editor editor = registry.edit();
+            List<Map.Entry<String, CommandInfo>> orphans = new ArrayList<>();
+            if (!editor.removeHandler(handler, orphans)) {
+                return false;
+            }
+            resultCache.invalidate(handler);
+            for (Map.Entry<String, CommandInfo> orphan : orphans) {
+                outputHandler.accept("警告: 父命令 '" + orphan.getKey() + "' 已被注销, 子命令 '" + orphan.getValue().getName() + "' 将被移除!");
+            }
+            registry = editor.build();
+            return true;
+        }
+    }
+
+    /**
+     * 用新的处理器替换旧处理器注册的命令
+     * <p>
+     * 移除和注册在同一个注册表快照中完成, 执行中的命令继续使用旧处理器完成,
+     * 其他处理器注册在这些命令下的子命令在父命令仍存在时保留
+     *
+     * @param previous    旧的命令处理器对象
+     * @param replacement 新的命令处理器对象
+     */
+    public void reloadHandler(Object previous, Object replacement) {
+        synchronized (registryLock) {
+            CommandRegistry.Editor editor = registry.edit();
+            List<Map.Entry<String, CommandInfo>> orphans = new ArrayList<>();
+            editor.removeHandler(previous, orphans);
+            resultCache.invalidate(previous);
+            registerHandler(editor, replacement);
+            for (Map.Entry<String, CommandInfo> orphan : orphans) {
+                if (!editor.putSubCommandIfAbsent(splitPath(orphan.getKey()), orphan.getValue())) {
+                    outputHandler.accept("警告: 父命令 '" + orphan.getKey() + "' 已不存在, 子命令 '" + orphan.getValue().getName() + "' 将被移除!");
+                }
+            }
+            registry = editor.build();
+        }
+    }
+
+    /**
+     * 启用或禁用命令
+     *
+     * @param path    命令名称或以空格分隔的子命令路径, 例如 "system info"
+     * @param enabled 是否启用
+     * @return 命令不存在时返回false
+     */
+    public boolean setCommandEnabled(String path, boolean enabled) {
+        synchronized (registryLock) {
+            CommandRegistry.Editor editor = registry.edit();
+            if (!editor.setEnabled(splitPath(path.toLowerCase()), enabled)) {
+                return false;
+            }
+            registry = editor.build();
+            return true;
+        }
+    }
+
+    /**
+     * 添加对所有命令生效的拦截器
+     */
+    public void addInterceptor(CommandInterceptor interceptor) {
+        addInterceptor(CommandMatcher.all(), interceptor);
+    }
+
+    /**
+     * 添加拦截器, 先添加的拦截器在调用链的外层
+     * <p>
+     * 已注册命令的调用链在新的注册表快照中重新链接, 之后注册的命令在注册时链接
+     *
+     * @param matcher     拦截的命令
+     * @param interceptor 拦截器
+     */
+    public void addInterceptor(CommandMatcher matcher, CommandInterceptor interceptor) {
+        synchronized (registryLock) {
+            List<InterceptorBinding> updated = new ArrayList<>(interceptors);
+            updated.add(new InterceptorBinding(matcher, interceptor));
+            interceptors = updated;
+            relinkInterceptors();
+        }
+    }
+
+    /**
+     * 移除拦截器
+     *
+     * @return 拦截器不存在时返回false
+     */
+    public boolean removeInterceptor(CommandInterceptor interceptor) {
+        synchronized (registryLock) {
+            List<InterceptorBinding> updated = new ArrayList<>(interceptors);
+            if (!updated.removeIf(binding -> binding.interceptor == interceptor)) {
+                return false;
+            }
+            interceptors = updated;
+            relinkInterceptors();
+            return true;
+        }
+    }
+
+    private void relinkInterceptors() {
+        CommandRegistry.Editor editor = registry.edit();
+        editor.replaceCommands(command -> relink(command, command.getName()));
+        registry = editor.build();
+    }
+
+    private CommandInfo relink(CommandInfo command, String path) {
+        CommandInfo updated = command.withInterceptors(matchInterceptors(path, command));
+        for (CommandInfo subCommand : command.getSubCommands()) {
+            CommandInfo relinked = relink(subCommand, path + " " + subCommand.getName());
+            if (relinked != subCommand) {
+                updated = updated.withSubCommand(relinked);
+            }
+        }
+        return updated;
+    }
+
+    private List<CommandInterceptor> matchInterceptors(String path, CommandInfo command) {
+        List<CommandInterceptor> matched = new ArrayList<>();
+        for (InterceptorBinding binding : interceptors) {
+            if (binding.matcher.matches(path, command)) {
+                matched.add(binding.interceptor);
+            }
+        }
+        return matched;
+    }
+
+    private static final class InterceptorBinding {
+        private final CommandMatcher matcher;
+        private final CommandInterceptor interceptor;
+
+        private InterceptorBinding(CommandMatcher matcher, CommandInterceptor interceptor) {
+            this.matcher = matcher;
+            this.interceptor = interceptor;
+        }
+    }
+
+    /**
+     * 注册单个处理器, 优先使用编译期生成的注册器, 不存在时回退到反射
+     */
+    @SuppressWarnings("unchecked")
+    private void registerHandler(CommandRegistry.Editor editor, Object handler) {
+        CommandRegistrar<Object> registrar = CommandRegistrars.forClass((Class<Object>) handler.getClass());
+        HandlerRegistration registration = new HandlerRegistration(editor);
+        registrar.register(handler, registration);
+        registration.complete();
+    }
+
+    /**
+     * 注册命令
+     */
+    private void registerCommand(CommandRegistry.Editor editor, CommandInfo.Builder builder) {
+        CommandInfo commandInfo = prepare(builder, null, null);
+        if (commandInfo == null) {
+            return;
+        }
+
+        if (editor.containsCommand(commandInfo.getName())) {
+            outputHandler.accept("警告: 命令 '" + commandInfo.getName() + "' 已被注册, 将被覆盖!");
+        }
+
+        editor.putCommand(commandInfo);
+    }
+
+    /**
+     * 注册子命令
+     */
+    private void registerSubCommand(CommandRegistry.Editor editor, String parent, CommandInfo.Builder builder) {
+        String parentName = parent.toLowerCase();
+        String[] parentPath = splitPath(parentName);
+        CommandInfo parentInfo = editor.findCommand(parentPath);
+        if (parentInfo == null) {
+            outputHandler.accept("警告: 父命令 '" + parentName + "' 不存在, 子命令 '" + builder.build().getName() + "' 将被忽略!");
+            return;
+        }
+
+        CommandInfo subCommandInfo = prepare(builder, parentName, parentInfo.getCategory());
+        if (subCommandInfo != null) {
+            editor.putSubCommand(parentPath, subCommandInfo);
+        }
+    }
+
+    /**
+     * 规范化命令名称, 补全调用器并链接拦截器, 无法创建调用器时返回null
+     *
+     * @param parentPath     小写的父命令路径, 主命令为null
+     * @param parentCategory 父命令的分类, 子命令未设置分类时继承, 主命令为null
+     */
+    private CommandInfo prepare(CommandInfo.Builder builder, String parentPath, String parentCategory) {
+        CommandInfo commandInfo = builder.build();
+        if (parentCategory != null && commandInfo.getCategory().isEmpty()) {
+            builder.category(parentCategory);
+            commandInfo = builder.build();
+        }
+        String commandName = commandInfo.getName().toLowerCase();
+        builder.name(commandName);
+        String path = parentPath == null ? commandName : String.join(" ", splitPath(parentPath)) + " " + commandName;
+        builder.interceptors(matchInterceptors(path, commandInfo));
+
+        if (commandInfo.getInvoker() == null) {
+            CommandHandler invoker = createInvoker(commandInfo.getHandler(), commandInfo.getMethod(), commandName);
+            if (invoker == null) {
+                return null;
+            }
+            builder.invoker(invoker);
+        }
+        return builder.build();
+    }
+
+    private static String[] splitPath(String path) {
+        String trimmed = path.trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    /**
+     * 单个处理器的注册过程, 子命令按父命令路径深度排序后注册, 以保证上级子命令先注册
+     */
+    private final class HandlerRegistration implements CommandRegistration {
+        private final CommandRegistry.Editor editor;
+        private final List<Map.Entry<String, CommandInfo.Builder>> subCommands = new ArrayList<>();
+
+        private HandlerRegistration(CommandRegistry.Editor editor) {
+            this.editor = editor;
+        }
+
+        @Override
+        public void command(CommandInfo.Builder command) {
+            registerCommand(editor, command);
+        }
+
+        @Override
+        public void subCommand(String parent, CommandInfo.Builder subCommand) {
+            subCommands.add(new AbstractMap.SimpleImmutableEntry<>(parent, subCommand));
+        }
+
+        private void complete() {
+            subCommands.sort(Comparator.comparingInt(entry -> splitPath(entry.getKey()).length));
+            for (Map.Entry<String, CommandInfo.Builder> entry : subCommands) {
+                registerSubCommand(editor, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 创建命令调用器, 方法签名不受支持时输出警告并返回null
+     */
+    private CommandHandler createInvoker(Object handler, Method method, String commandName) {
+        if (method == null) {
+            outputHandler.accept("警告: 命令 '" + commandName + "' 缺少命令方法, 将被忽略!");
+            return null;
+        }
+        try {
+            if (TypedCommandHandler.isTyped(method)) {
+                return TypedCommandHandler.create(handler, method, converters);
+            }
+            return MethodCommandHandler.create(handler, method);
+        } catch (IllegalArgumentException e) {
+            outputHandler.accept("警告: 命令 '" + commandName + "' 的方法签名不受支持, 将被忽略! " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 注册参数转换器, 需在注册使用该类型的处理器之前调用
+     */
+    public <T> void registerConverter(Class<T> type, ArgumentConverter<? extends T> converter) {
+        converters.register(type, converter);
+    }
+
+    /**
+     * 设置输出处理器, 被替换的 {@link AsyncOutputHandler} 会输出剩余消息后关闭
+     */
+    public void setOutputHandler(Consumer<String> outputHandler) {
+        Consumer<String> previous = this.outputHandler;
+        this.outputHandler = outputHandler;
+        if (previous instanceof AsyncOutputHandler && previous != outputHandler) {
+            ((AsyncOutputHandler) previous).close();
+        }
+    }
+
+    /**
+     * 设置权限检查器, 检查时传入命令的权限节点
+     */
+    public void setPermissionChecker(PermissionChecker permissionChecker) {
+        this.permissionChecker = permissionChecker;
+    }
+
+    /**
+     * 设置只检查发送者的权限检查器
+     */
+    public void setPermissionChecker(Function<Object, Boolean> permissionChecker) {
+        this.permissionChecker = (sender, permission) -> permissionChecker.apply(sender);
+    }
+
+    /**
+     * 设置命令日志, 设置后每条执行的命令都会追加到日志中, 被替换的日志会写入剩余记录后关闭
+     */
+    public void setJournal(CommandJournal journal) {
+        CommandJournal previous = this.journal;
+        this.journal = journal;
+        if (previous != null && previous != journal) {
+            previous.close();
+        }
+    }
+
+    /**
+     * 设置结果缓存, 用于设置了 cacheTtl 的命令
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * 获取结果缓存
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * 设置按发送者的限流器, 为null时不限流
+     */
+    public void setSenderRateLimiter(SenderRateLimiter senderRateLimiter) {
+        this.senderRateLimiter = senderRateLimiter;
+    }
+
+    /**
+     * 限制分类中同时执行的命令数量, 达到上限的命令直接返回 THROTTLED
+     *
+     * @param category      命令分类, 不区分大小写
+     * @param maxConcurrent 最大并发执行数, 小于等于0时移除限制
+     */
+    public synchronized void setBulkhead(String category, int maxConcurrent) {
+        Map<String, Bulkhead> updated = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        updated.putAll(bulkheads);
+        if (maxConcurrent > 0) {
+            updated.put(category, new Bulkhead(maxConcurrent));
+        } else {
+            updated.remove(category);
+        }
+        bulkheads = updated.isEmpty() ? Collections.emptyMap() : updated;
+    }
+
+    /**
+     * 获取分类的并发隔离舱, 未限制时返回null
+     */
+    public Bulkhead getBulkhead(String category) {
+        return bulkheads.get(category);
+    }
+
+    /**
+     * 设置异步命令执行器
+     */
+    public void setAsyncExecutor(AsyncCommandExecutor asyncExecutor) {
+        AsyncCommandExecutor previous = this.asyncExecutor;
+        this.asyncExecutor = asyncExecutor;
+        if (previous != null && previous != asyncExecutor) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * 设置串行执行通道, 为null时关闭
+     * <p>
+     * 启用后同一邮箱 (处理器或发送者) 的命令按提交顺序逐个执行, 命令方法无需加锁即可访问处理器的可变状态
+     */
+    public void setExecutionLanes(ExecutionLanes executionLanes) {
+        ExecutionLanes previous = this.executionLanes;
+        this.executionLanes = executionLanes;
+        if (previous != null && previous != executionLanes) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * 获取串行执行通道, 未启用时返回null
+     */
+    public ExecutionLanes getExecutionLanes() {
+        return executionLanes;
+    }
+
+    /**
+     * 设置批量执行的并行度
+     */
+    public void setBatchParallelism(int batchParallelism) {
+        this.batchParallelism = batchParallelism;
+    }
+
+    /**
+     * 设置管道缓冲区最多容纳的元素数, 缓冲区已满时上游命令等待下游读取
+     */
+    public void setPipeCapacity(int pipeCapacity) {
+        if (pipeCapacity <= 0) {
+            throw new IllegalArgumentException("pipeCapacity必须大于0");
+        }
+        this.pipeCapacity = pipeCapacity;
+    }
+
+    /**
+     * 获取异步命令执行器, 未设置时创建默认执行器
+     */
+    public AsyncCommandExecutor getAsyncExecutor() {
+        AsyncCommandExecutor executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    executor = AsyncCommandExecutor.createDefault();
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 异步执行命令
+     */
+    public CompletableFuture<CommandResult> executeAsync(String commandLine) {
+        return executeAsync(commandLine, null);
+    }
+
+    /**
+     * 异步执行命令（带发送者）
+     * <p>
+     * 命令在异步执行器中运行, 未完成的命令数量达到上限时按拒绝策略处理.
+     * 设置了超时的命令超时后立即以 TIMEOUT 结果完成, 不等待命令方法返回.
+     * 启用串行执行通道时需要串行执行的命令直接放入邮箱, 不占用异步执行器的线程排队等待
+     */
+    public CompletableFuture<CommandResult> executeAsync(String commandLine, Object sender) {
+        CompletableFuture<CommandResult> completion = new CompletableFuture<>();
+        CompletableFuture<CommandResult> future;
+        ExecutionLanes lanes = executionLanes;
+        if (lanes == null || Pipeline.hasOperators(commandLine)) {
+            future = getAsyncExecutor().submit(() -> execute(commandLine, sender, completion));
+        } else {
+            long timestamp = journal != null ? System.currentTimeMillis() : 0;
+            ResolvedCommand resolved = resolve(commandLine, sender);
+            Object key = resolved.isResolved() ? lanes.keyOf(resolved.getCommand(), sender) : null;
+            future = key != null
+                    ? lanes.submit(key, () -> finish(commandLine, sender, resolved, timestamp, completion))
+                    : getAsyncExecutor().submit(() -> finish(commandLine, sender, resolved, timestamp, completion));
+        }
+        future.whenComplete((result, error) -> {
+            if (error instanceof RejectedExecutionException) {
+                completion.complete(queueFull());
+            } else if (error != null) {
+                completion.completeExceptionally(error);
+            } else {
+                completion.complete(result);
+            }
+        });
+        return completion;
+    }
+
+    /**
+     * 执行命令
+     */
+    public CommandResult execute(String commandLine) {
+        return execute(commandLine, null);
+    }
+
+    /**
+     * 执行命令（带发送者）
+     * <p>
+     * 命令行可以用 {@code ;}、{@code &&}、{@code ||} 连接多个命令, 用 {@code |} 将前一命令的输出传给后一命令
+     */
+    public CommandResult execute(String commandLine, Object sender) {
+        return execute(commandLine, sender, null);
+    }
+
+    /**
+     * @param completion 超时时提前完成的结果, 同步执行时为null
+     */
+    private CommandResult execute(String commandLine, Object sender, CompletableFuture<CommandResult> completion) {
+        Pipeline pipeline;
+        try {
+            pipeline = Pipeline.parse(commandLine);
+        } catch (IllegalArgumentException e) {
+            return CommandResult.syntaxError(e.getMessage());
+        }
+        if (pipeline != null) {
+            return executePipeline(pipeline, sender);
+        }
+
+        long timestamp = journal != null ? System.currentTimeMillis() : 0;
+        return finish(commandLine, sender, resolve(commandLine, sender), timestamp, completion);
+    }
+
+    /**
+     * 按连接符依次执行各组管道命令
+     *
+     * @return 最后执行的一组命令的结果, 消息为各组结果消息按行拼接
+     */
+    private CommandResult executePipeline(Pipeline pipeline, Object sender) {
+        CommandResult last = null;
+        StringBuilder messages = new StringBuilder();
+        int executed = 0;
+        for (Pipeline.Segment segment : pipeline.getSegments()) {
+            if (last != null && !segment.getOperator().shouldRun(last)) {
+                continue;
+            }
+            last = executeStages(segment.getStages(), sender);
+            if (executed++ > 0) {
+                messages.append('\n');
+            }
+            messages.append(last.getMessage());
+        }
+        return executed > 1 ? last.withMessage(messages.toString()) : last;
+    }
+
+    /**
+     * 执行以管道符连接的命令
+     * <p>
+     * 最后一个命令在当前线程执行, 其余命令在管道线程中同时执行, 相邻命令通过有界管道传递元素.
+     * 下游命令结束后中止上游管道, 上游命令被取消. 有命令位于同一串行执行通道 (包括当前线程正在处理的通道) 时,
+     * 下游命令要等上游命令结束才能执行, 此时各命令在当前线程中依次执行, 上游输出超过
+     * {@link #SEQUENTIAL_PIPE_CAPACITY} 个元素时失败.
+     *
+     * @return 最后一个命令的结果; 最后一个命令成功而上游命令失败时, 返回第一个失败的上游命令的结果
+     */
+    private CommandResult executeStages(List<String> stages, Object sender) {
+        int count = stages.size();
+        long[] timestamps = new long[count];
+        ResolvedCommand[] resolved = new ResolvedCommand[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = journal != null ? System.currentTimeMillis() : 0;
+            resolved[i] = resolve(stages.get(i), sender);
+        }
+        if (count == 1) {
+            return finish(stages.get(0), sender, resolved[0], timestamps[0], null);
+        }
+
+        boolean sequential = sharesLane(resolved, sender);
+        Pipe[] pipes = new Pipe[count - 1];
+        for (int i = 0; i < pipes.length; i++) {
+            pipes[i] = sequential ? new Pipe(SEQUENTIAL_PIPE_CAPACITY, false) : new Pipe(pipeCapacity);
+        }
+
+        List<CompletableFuture<CommandResult>> upstream = new ArrayList<>(count - 1);
+        for (int i = 0; i < count - 1; i++) {
+            int stage = i;
+            Supplier<CommandResult> task = () -> executeStage(stages.get(stage), sender, resolved[stage],
+                    timestamps[stage], stage > 0 ? pipes[stage - 1] : null, pipes[stage]);
+            if (sequential) {
+                upstream.add(CompletableFuture.completedFuture(task.get()));
+                continue;
+            }
+            try {
+                upstream.add(CompletableFuture.supplyAsync(task, getPipeExecutor()));
+            } catch (RejectedExecutionException e) {
+                // 管道线程已满或已关闭, 取消已启动的上游命令
+                if (stage > 0) {
+                    pipes[stage - 1].abort();
+                }
+                for (CompletableFuture<CommandResult> started : upstream) {
+                    started.join();
+                }
+                return CommandResult.error("管道线程数已达上限, 请稍后重试");
+            }
+        }
+        CommandResult result = executeStage(stages.get(count - 1), sender, resolved[count - 1],
+                timestamps[count - 1], pipes[count - 2], null);
+
+        for (int i = 0; i < count - 1; i++) {
+            CommandResult upstreamResult = upstream.get(i).join();
+            // 因下游停止读取而被取消的上游命令不视为失败
+            if (result.isSuccess() && !upstreamResult.isSuccess() && !pipes[i].isAborted()) {
+                result = upstreamResult;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 管道中是否有两个命令位于同一串行执行通道, 或有命令位于当前线程正在处理的通道
+     */
+    private boolean sharesLane(ResolvedCommand[] resolved, Object sender) {
+        ExecutionLanes lanes = executionLanes;
+        if (lanes == null) {
+            return false;
+        }
+        Set<Object> keys = new HashSet<>();
+        for (ResolvedCommand command : resolved) {
+            Object key = command.isResolved() ? lanes.keyOf(command.getCommand(), sender) : null;
+            if (key != null && (!keys.add(key) || lanes.isDraining(key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ExecutorService getPipeExecutor() {
+        ExecutorService executor = pipeExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = pipeExecutor;
+                if (executor == null) {
+                    executor = CommandExecutors.cached("CommandFlow-pipe-", MAX_PIPE_THREADS);
+                    pipeExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 执行管道中的一个命令, 结束后中止上游管道并关闭下游管道
+     */
+    private CommandResult executeStage(String commandLine, Object sender, ResolvedCommand resolved, long timestamp,
+                                       Pipe input, Pipe output) {
+        CommandResult result = null;
+        try {
+            if (resolved.isResolved()) {
+                resolved.getContext().setPipes(input, output);
+            }
+            result = finish(commandLine, sender, resolved, timestamp, null);
+            return result;
+        } finally {
+            if (input != null) {
+                input.abort();
+            }
+            if (output != null) {
+                output.close(result);
+            }
+        }
+    }
+
+    /**
+     * 执行已解析的命令并写入命令日志
+     *
+     * @param timestamp 开始解析的时间, 未启用命令日志时为0
+     */
+    private CommandResult finish(String commandLine, Object sender, ResolvedCommand resolved, long timestamp,
+                                 CompletableFuture<CommandResult> completion) {
+        CommandResult result = resolved.isResolved()
+                ? executeInLane(resolved.getCommand(), resolved.getContext(), sender, completion)
+                : resolved.getFailure();
+
+        CommandJournal journal = this.journal;
+        if (journal != null) {
+            journal.append(timestamp, sender, commandLine, resolved.getPath(), result.getStatus());
+        }
+        return result;
+    }
+
+    /**
+     * 批量执行命令
+     * <p>
+     * 先解析全部命令行, 再按解析出的命令分组执行. 允许并行的命令分块并行执行,
+     * 不允许并行的命令按处理器分组, 同一处理器的命令按输入顺序串行执行.
+     *
+     * @param commandLines 命令行列表
+     * @param sender       发送者
+     * @return 与输入顺序一致的命令结果
+     */
+    public List<CommandResult> executeBatch(List<String> commandLines, Object sender) {
+        int size = commandLines.size();
+        CommandResult[] results = new CommandResult[size];
+        ResolvedCommand[] resolvedCommands = new ResolvedCommand[size];
+        Map<CommandInfo, List<Integer>> parallelGroups = new LinkedHashMap<>();
+        Map<Object, List<Integer>> serialGroups = new LinkedHashMap<>();
+        List<Integer> pipelines = new ArrayList<>();
+
+        CommandJournal journal = this.journal;
+        for (int i = 0; i < size; i++) {
+            if (Pipeline.hasOperators(commandLines.get(i))) {
+                // 管道与连接符按输入顺序逐条执行
+                pipelines.add(i);
+                continue;
+            }
+            ResolvedCommand resolved = resolve(commandLines.get(i), sender);
+            resolvedCommands[i] = resolved;
+            if (!resolved.isResolved()) {
+                results[i] = resolved.getFailure();
+                if (journal != null) {
+                    journal.append(System.currentTimeMillis(), sender, commandLines.get(i), resolved.getPath(),
+                            results[i].getStatus());
+                }
+            } else if (resolved.getCommand().isParallel()) {
+                parallelGroups.computeIfAbsent(resolved.getCommand(), k -> new ArrayList<>()).add(i);
+            } else {
+                serialGroups.computeIfAbsent(resolved.getCommand().getHandler(), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int parallelism = Math.max(1, batchParallelism);
+        List<List<Integer>> tasks = new ArrayList<>(serialGroups.values());
+        if (!pipelines.isEmpty()) {
+            tasks.add(pipelines);
+        }
+        for (List<Integer> group : parallelGroups.values()) {
+            int chunkSize = Math.max(1, (group.size() + parallelism - 1) / parallelism);
+            for (int from = 0; from < group.size(); from += chunkSize) {
+                tasks.add(group.subList(from, Math.min(from + chunkSize, group.size())));
+            }
+        }
+
+        if (tasks.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        AtomicInteger nextTask = new AtomicInteger();
+        CountDownLatch remaining = new CountDownLatch(tasks.size());
+        Runnable worker = () -> {
+            int taskIndex;
+            while ((taskIndex = nextTask.getAndIncrement()) < tasks.size()) {
+                try {
+                    for (int index : tasks.get(taskIndex)) {
+                        ResolvedCommand resolved = resolvedCommands[index];
+                        if (resolved == null) {
+                            results[index] = execute(commandLines.get(index), sender);
+                            continue;
+                        }
+                        long timestamp = journal != null ? System.currentTimeMillis() : 0;
+                        results[index] = executeInLane(resolved.getCommand(), resolved.getContext(), sender, null);
+                        if (journal != null) {
+                            journal.append(timestamp, sender, commandLines.get(index), resolved.getPath(),
+                                    results[index].getStatus());
+                        }
+                    }
+                } finally {
+                    remaining.countDown();
+                }
+            }
+        };
+
+        // 调用者线程同样参与执行, 执行器繁忙时也不会死锁
+        AsyncCommandExecutor executor = getAsyncExecutor();
+        int helpers = Math.min(parallelism, tasks.size()) - 1;
+        for (int i = 0; i < helpers; i++) {
+            if (!executor.tryExecute(worker)) {
+                break;
+            }
+        }
+        worker.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                remaining.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 解析命令行, 查找最终执行的命令并完成启用状态和权限检查
+     */
+    private ResolvedCommand resolve(String commandLine, Object sender) {
+        CommandContext context = new CommandContext(commandLine);
+        context.setSender(sender);
+
+        String commandName = context.getCommandName().toLowerCase();
+        CommandInfo commandInfo = registry.lookup(commandName);
+
+        if (commandInfo == null) {
+            return ResolvedCommand.failed(unknownCommand(commandName));
+        }
+
+        if (!commandInfo.isEnabled()) {
+            commandInfo.getStats().recordRejected(CommandResult.Status.ERROR);
+            return ResolvedCommand.failed(commandInfo, CommandResult.error("命令已禁用: " + commandName));
+        }
+
+        if (!checkPermission(commandInfo, sender)) {
+            return ResolvedCommand.failed(commandInfo, CommandResult.permissionDenied("您没有执行此命令的权限"));
+        }
+
+        // 限流在调用命令方法之前完成, 被限流的请求不会进入执行器
+        SenderRateLimiter senderLimiter = senderRateLimiter;
+        if (senderLimiter != null && sender != null && !senderLimiter.tryAcquire(sender)) {
+            commandInfo.getStats().recordRejected(CommandResult.Status.THROTTLED);
+            return ResolvedCommand.failed(commandInfo, CommandResult.throttled("请求过于频繁, 请稍后重试"));
+        }
+        if (!checkRateLimit(commandInfo)) {
+            return ResolvedCommand.failed(commandInfo, CommandResult.throttled("命令执行过于频繁, 请稍后重试"));
+        }
+
+        // 逐级查找子命令, 共享已解析的命令行; 子命令设置了权限节点时同样需要检查
+        // 启用命令日志时顺带记录命令路径, 避免写日志时再遍历子命令树
+        int depth = 0;
+        CommandInfo target = commandInfo;
+        boolean recordPath = journal != null;
+        StringBuilder path = null;
+        while (depth < context.getArgCount() && !target.getSubCommands().isEmpty()) {
+            CommandInfo subCommandInfo = target.findSubCommand(context.getArg(depth));
+            if (subCommandInfo == null) {
+                break;
+            }
+            if (!subCommandInfo.isEnabled()) {
+                subCommandInfo.getStats().recordRejected(CommandResult.Status.ERROR);
+                return ResolvedCommand.failed(commandInfo, CommandResult.error("命令已禁用: " + subCommandInfo.getName()));
+            }
+            if (!checkPermission(subCommandInfo, sender)) {
+                return ResolvedCommand.failed(commandInfo, CommandResult.permissionDenied("您没有执行此命令的权限"));
+            }
+            if (!checkRateLimit(subCommandInfo)) {
+                return ResolvedCommand.failed(commandInfo, CommandResult.throttled("命令执行过于频繁, 请稍后重试"));
+            }
+            if (recordPath) {
+                if (path == null) {
+                    path = new StringBuilder(commandInfo.getName());
+                }
+                path.append(' ').append(subCommandInfo.getName());
+            }
+            target = subCommandInfo;
+            depth++;
+        }
+
+        // 参数个数不符合用法时直接返回语法错误, 不调用命令方法
+        CommandContext targetContext = context.shift(depth);
+        UsageSchema schema = target.getUsageSchema();
+        if (schema != null && !schema.accepts(targetContext.getArgCount())) {
+            target.getStats().recordRejected(CommandResult.Status.SYNTAX_ERROR);
+            return ResolvedCommand.failed(commandInfo, CommandResult.syntaxError("用法: " + target.getUsage()));
+        }
+
+        return ResolvedCommand.of(commandInfo, target, targetContext, path != null ? path.toString() : null);
+    }
+
+    /**
+     * 构建未知命令的结果, 结果数据为相近的命令名称列表
+     */
+    private CommandResult unknownCommand(String commandName) {
+        List<String> suggestions = registry.suggest(commandName, MAX_SUGGESTIONS);
+        if (suggestions.isEmpty()) {
+            return CommandResult.error("未知命令: " + commandName, suggestions);
+        }
+        return CommandResult.error("未知命令: " + commandName + ", 您是不是要输入: "
+                + String.join(", ", suggestions), suggestions);
+    }
+
+    /**
+     * 检查发送者是否拥有命令的权限节点, 未设置权限或没有发送者时不检查
+     */
+    private boolean checkPermission(CommandInfo commandInfo, Object sender) {
+        if (hasPermission(commandInfo, sender)) {
+            return true;
+        }
+        commandInfo.getStats().recordRejected(CommandResult.Status.PERMISSION_DENIED);
+        return false;
+    }
+
+    /**
+     * 发送者是否拥有命令的权限节点, 不记录统计
+     */
+    boolean hasPermission(CommandInfo commandInfo, Object sender) {
+        String permission = commandInfo.getPermission();
+        return permission.isEmpty() || sender == null || permissionChecker.hasPermission(sender, permission);
+    }
+
+    /**
+     * 从命令的令牌桶获取令牌, 未限流的命令直接通过
+     */
+    private boolean checkRateLimit(CommandInfo commandInfo) {
+        RateLimiter rateLimiter = commandInfo.getRateLimiter();
+        if (rateLimiter == null || rateLimiter.tryAcquire()) {
+            return true;
+        }
+        commandInfo.getStats().recordRejected(CommandResult.Status.THROTTLED);
+        return false;
+    }
+
+    /**
+     * 执行命令方法, 启用串行执行通道时在命令所属的邮箱中执行
+     * <p>
+     * 邮箱空闲时直接在当前线程执行, 否则等待邮箱中排在前面的命令执行完成
+     */
+    private CommandResult executeInLane(CommandInfo commandInfo, CommandContext context, Object sender,
+                                        CompletableFuture<CommandResult> completion) {
+        ExecutionLanes lanes = executionLanes;
+        Object key = lanes != null ? lanes.keyOf(commandInfo, sender) : null;
+        if (key == null) {
+            return executeMethod(commandInfo, context, completion);
+        }
+        try {
+            return lanes.call(key, () -> executeMethod(commandInfo, context, completion));
+        } catch (RejectedExecutionException e) {
+            return queueFull();
+        }
+    }
+
+    private static CommandResult queueFull() {
+        return CommandResult.error("命令队列已满, 请稍后重试");
+    }
+
+    /**
+     * 执行命令方法
+     *
+     * @param completion 超时时提前完成的结果, 可以为null
+     */
+    private CommandResult executeMethod(CommandInfo commandInfo, CommandContext context,
+                                        CompletableFuture<CommandResult> completion) {
+        Map<String, Bulkhead> currentBulkheads = bulkheads;
+        Bulkhead bulkhead = currentBulkheads.isEmpty() ? null : currentBulkheads.get(commandInfo.getCategory());
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            commandInfo.getStats().recordRejected(CommandResult.Status.THROTTLED);
+            return CommandResult.throttled("分类 '" + commandInfo.getCategory() + "' 的并发命令已达上限, 请稍后重试");
+        }
+
+        long start = System.nanoTime();
+        CommandTimeout timeout = null;
+        if (commandInfo.getTimeout() > 0) {
+            Runnable onTimeout = completion != null ? () -> completion.complete(timedOut(commandInfo)) : null;
+            timeout = CommandTimeout.start(context, commandInfo.getTimeout(), onTimeout);
+        }
+
+        CommandResult result;
+        boolean expired = false;
+        try {
+            if (commandInfo.getCacheTtl() > 0) {
+                result = executeCached(commandInfo, context);
+            } else {
+                result = commandInfo.getDispatcher().handle(context);
+            }
+        } catch (Exception e) {
+            // 超时或管道中止取消命令引起的异常不输出堆栈
+            if (!context.isCancelled() && !(e instanceof CancellationException)) {
+                e.printStackTrace();
+            }
+            result = CommandResult.error("命令执行错误: " + e.getMessage());
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            // 命令方法抛出 Error 时同样结束计时, 以免超时任务之后中断调用者线程
+            if (timeout != null) {
+                expired = !timeout.complete();
+            }
+        }
+
+        // 超时后命令方法返回的结果 (包括被中断产生的异常) 一律视为超时
+        if (expired) {
+            result = timedOut(commandInfo);
+        }
+        commandInfo.getStats().record(result.getStatus(), System.nanoTime() - start);
+        return result;
+    }
+
+    private static CommandResult timedOut(CommandInfo commandInfo) {
+        return CommandResult.timeout("命令执行超时 (" + commandInfo.getTimeout() + "ms)");
+    }
+
+    /**
+     * 补全命令行的最后一个单词, 只返回发送者有权限执行的已启用命令
+     *
+     * @param partialLine 已输入的命令行
+     * @return 按字典序排列的候选名称, 最多 {@link CommandCompleter#DEFAULT_LIMIT} 个
+     */
+    public List<String> complete(String partialLine, Object sender) {
+        return new CommandCompleter(this, sender, CommandCompleter.DEFAULT_LIMIT).complete(partialLine);
+    }
+
+    /**
+     * 创建补全器, 逐字符输入时复用上一次的查找位置
+     *
+     * @param limit 最多返回的候选个数
+     */
+    public CommandCompleter newCompleter(Object sender, int limit) {
+        return new CommandCompleter(this, sender, limit);
+    }
+
+    /**
+     * 通过结果缓存执行命令, 拦截器在缓存之外, 命中缓存时同样经过拦截器
+     */
+    private CommandResult executeCached(CommandInfo commandInfo, CommandContext context) {
+        CommandHandler cached = ctx -> resultCache.get(commandInfo, ctx.getArgs(),
+                commandInfo.isCachePerSender() ? ctx.getSender() : null,
+                () -> commandInfo.getInvoker().handle(ctx));
+        if (commandInfo.getInterceptors().isEmpty()) {
+            return cached.handle(context);
+        }
+        return InterceptorChain.link(commandInfo, commandInfo.getInterceptors(), cached).handle(context);
+    }
+
+    /**
+     * 初始化控制台输入
+     */
+    public void initConsoleInput() {
+        if (initialized) {
+            return;
+        }
+
+        initialized = true;
+        Scanner scanner = new Scanner(System.in);
+
+        while (shouldContinue) {
+            String commandLine = scanner.nextLine().trim();
+
+            CommandResult result = execute(commandLine);
+            outputHandler.accept(result.toString());
+        }
+
+        scanner.close();
+    }
+
+    /**
+     * 停止控制台输入
+     */
+    public void stop() {
+        shouldContinue = false;
+
+        AsyncCommandExecutor executor = asyncExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+
+        ExecutionLanes lanes = executionLanes;
+        if (lanes != null) {
+            lanes.shutdown();
+        }
+
+        ExecutorService pipes = pipeExecutor;
+        if (pipes != null) {
+            pipes.shutdown();
+        }
+
+        CommandJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.close();
+        }
+
+        // 异步输出在最后关闭, 保证已产生的消息全部输出
+        Consumer<String> output = outputHandler;
+        if (output instanceof AsyncOutputHandler) {
+            ((AsyncOutputHandler) output).close();
+        }
+    }
+
+    /**
+     * 获取当前注册表快照
+     */
+    public CommandRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 获取所有命令及子命令的统计快照
+     *
+     * @return 键为命令路径, 例如 "todo add"
+     */
+    public Map<String, CommandStats.Snapshot> getStats() {
+        Map<String, CommandStats.Snapshot> stats = new TreeMap<>();
+        for (CommandInfo command : registry.getCommands()) {
+            collectStats(command.getName(), command, stats);
+        }
+        return stats;
+    }
+
+    private static void collectStats(String path, CommandInfo command, Map<String, CommandStats.Snapshot> stats) {
+        stats.put(path, command.getStats().snapshot());
+        for (CommandInfo subCommand : command.getSubCommands()) {
+            collectStats(path + " " + subCommand.getName(), subCommand, stats);
+        }
+    }
+
+    /**
+     * 获取所有命令
+     */
+    public Collection<CommandInfo> getCommands() {
+        return registry.getCommands();
+    }
+
+    /**
+     * 获取命令
+     */
+    public CommandInfo getCommand(String name) {
+        return registry.getCommand(name);
+    }
+
+    /**
+     * 是否包含命令
+     */
+    public boolean hasCommand(String name) {
+        return registry.hasCommand(name);
+    }
+}
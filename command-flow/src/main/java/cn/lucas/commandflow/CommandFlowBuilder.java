@@ -0,0 +1,251 @@
+package cn.lucas.commandflow;
+
+import cn.lucas.commandflow.cache.ResultCache;
+import cn.lucas.commandflow.converter.ArgumentConverter;
+import cn.lucas.commandflow.executor.AsyncCommandExecutor;
+import cn.lucas.commandflow.executor.ExecutionLanes;
+import cn.lucas.commandflow.executor.RejectionPolicy;
+import cn.lucas.commandflow.journal.CommandJournal;
+import cn.lucas.commandflow.limit.SenderRateLimiter;
+import cn.lucas.commandflow.output.AsyncOutputHandler;
+import cn.lucas.commandflow.output.OverflowPolicy;
+import cn.lucas.commandflow.permission.PermissionChecker;
+import cn.lucas.commandflow.pipeline.Pipe;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * CommandFlow构建器
+ */
+public class CommandFlowBuilder {
+    private final CommandFlow commandFlow;
+    private final List<Object> handlers = new ArrayList<>();
+    private final Map<Class<?>, ArgumentConverter<?>> converters = new LinkedHashMap<>();
+    private Consumer<String> outputHandler = System.out::println;
+    private int outputCapacity;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private PermissionChecker permissionChecker = (sender, permission) -> true;
+    private boolean autoStart = false;
+    private Executor executor;
+    private int maxPendingCommands = AsyncCommandExecutor.DEFAULT_MAX_PENDING;
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+    private int batchParallelism = Runtime.getRuntime().availableProcessors();
+    private SenderRateLimiter senderRateLimiter;
+    private CommandJournal journal;
+    private final Map<String, Integer> bulkheads = new LinkedHashMap<>();
+    private int resultCacheSize = ResultCache.DEFAULT_MAX_ENTRIES;
+    private ExecutionLanes.Mode laneMode;
+    private int pipeCapacity = Pipe.DEFAULT_CAPACITY;
+
+    /**
+     * 创建新的独立CommandFlow实例
+     */
+    public CommandFlowBuilder() {
+        this(new CommandFlow());
+    }
+
+    /**
+     * 配置已有的CommandFlow实例, 例如 {@link CommandFlow#getInstance()}
+     */
+    public CommandFlowBuilder(CommandFlow commandFlow) {
+        this.commandFlow = commandFlow;
+    }
+
+    /**
+     * 注册命令处理器
+     */
+    public CommandFlowBuilder registerHandler(Object handler) {
+        handlers.add(handler);
+        return this;
+    }
+
+    /**
+     * 注册参数转换器, 在注册处理器之前生效
+     */
+    public <T> CommandFlowBuilder registerConverter(Class<T> type, ArgumentConverter<? extends T> converter) {
+        converters.put(type, converter);
+        return this;
+    }
+
+    /**
+     * 设置输出处理器
+     */
+    public CommandFlowBuilder setOutputHandler(Consumer<String> outputHandler) {
+        this.outputHandler = outputHandler;
+        return this;
+    }
+
+    /**
+     * 通过有界缓冲区异步输出, 输出处理器在单独的线程中批量调用
+     *
+     * @param capacity       缓冲区容量
+     * @param overflowPolicy 缓冲区已满时的处理策略
+     */
+    public CommandFlowBuilder asyncOutput(int capacity, OverflowPolicy overflowPolicy) {
+        this.outputCapacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * 设置权限检查器, 检查时传入命令的权限节点, 可使用 {@link cn.lucas.commandflow.permission.PermissionManager}
+     */
+    public CommandFlowBuilder setPermissionChecker(PermissionChecker permissionChecker) {
+        this.permissionChecker = permissionChecker;
+        return this;
+    }
+
+    /**
+     * 设置只检查发送者的权限检查器
+     */
+    public CommandFlowBuilder setPermissionChecker(Function<Object, Boolean> permissionChecker) {
+        this.permissionChecker = (sender, permission) -> permissionChecker.apply(sender);
+        return this;
+    }
+
+    /**
+     * 设置异步命令执行器, 可使用 {@link cn.lucas.commandflow.executor.CommandExecutors} 创建
+     */
+    public CommandFlowBuilder setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 设置异步执行时最大未完成命令数
+     */
+    public CommandFlowBuilder maxPendingCommands(int maxPendingCommands) {
+        this.maxPendingCommands = maxPendingCommands;
+        return this;
+    }
+
+    /**
+     * 设置异步队列已满时的拒绝策略
+     */
+    public CommandFlowBuilder rejectionPolicy(RejectionPolicy rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+        return this;
+    }
+
+    /**
+     * 设置批量执行的并行度
+     */
+    public CommandFlowBuilder batchParallelism(int batchParallelism) {
+        this.batchParallelism = batchParallelism;
+        return this;
+    }
+
+    /**
+     * 设置每个发送者在所有命令上的限流
+     *
+     * @param permitsPerSecond 每秒允许的执行次数
+     * @param burst            允许的最大突发次数
+     */
+    public CommandFlowBuilder senderRateLimit(double permitsPerSecond, int burst) {
+        this.senderRateLimiter = new SenderRateLimiter(permitsPerSecond, burst);
+        return this;
+    }
+
+    /**
+     * 设置命令日志, 可使用 {@link CommandJournal.Builder} 打开
+     */
+    public CommandFlowBuilder journal(CommandJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    /**
+     * 限制分类中同时执行的命令数量
+     *
+     * @param category      命令分类, 不区分大小写
+     * @param maxConcurrent 最大并发执行数
+     */
+    public CommandFlowBuilder bulkhead(String category, int maxConcurrent) {
+        this.bulkheads.put(category, maxConcurrent);
+        return this;
+    }
+
+    /**
+     * 启用串行执行通道, 同一邮箱的命令逐个执行; 设置了执行器时邮箱在该执行器中处理
+     *
+     * @param mode 邮箱的划分方式
+     */
+    public CommandFlowBuilder executionLanes(ExecutionLanes.Mode mode) {
+        this.laneMode = mode;
+        return this;
+    }
+
+    /**
+     * 设置管道缓冲区最多容纳的元素数
+     */
+    public CommandFlowBuilder pipeCapacity(int pipeCapacity) {
+        this.pipeCapacity = pipeCapacity;
+        return this;
+    }
+
+    /**
+     * 设置结果缓存的最大条目数
+     */
+    public CommandFlowBuilder resultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+        return this;
+    }
+
+    /**
+     * 设置自动启动
+     */
+    public CommandFlowBuilder autoStart(boolean autoStart) {
+        this.autoStart = autoStart;
+        return this;
+    }
+
+    /**
+     * 构建CommandFlow
+     */
+    public CommandFlow build() {
+        if (outputCapacity > 0) {
+            commandFlow.setOutputHandler(new AsyncOutputHandler(outputHandler, outputCapacity, overflowPolicy));
+        } else {
+            commandFlow.setOutputHandler(outputHandler);
+        }
+        commandFlow.setPermissionChecker(permissionChecker);
+        commandFlow.setBatchParallelism(batchParallelism);
+        commandFlow.setPipeCapacity(pipeCapacity);
+        commandFlow.setSenderRateLimiter(senderRateLimiter);
+        commandFlow.setResultCache(new ResultCache(resultCacheSize));
+        bulkheads.forEach(commandFlow::setBulkhead);
+        if (journal != null) {
+            commandFlow.setJournal(journal);
+        }
+        if (executor != null) {
+            commandFlow.setAsyncExecutor(new AsyncCommandExecutor(executor, maxPendingCommands, rejectionPolicy));
+        } else {
+            commandFlow.setAsyncExecutor(AsyncCommandExecutor.createDefault(maxPendingCommands, rejectionPolicy));
+        }
+        if (laneMode != null) {
+            commandFlow.setExecutionLanes(executor != null
+                    ? new ExecutionLanes(laneMode, executor, ExecutionLanes.DEFAULT_MAX_QUEUED)
+                    : ExecutionLanes.createDefault(laneMode));
+        }
+
+        converters.forEach(this::applyConverter);
+        commandFlow.registerHandlers(handlers);
+
+        if (autoStart) {
+            new Thread(commandFlow::initConsoleInput).start();
+        }
+
+        return commandFlow;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void applyConverter(Class<T> type, ArgumentConverter<?> converter) {
+        commandFlow.registerConverter(type, (ArgumentConverter<? extends T>) converter);
+    }
+}
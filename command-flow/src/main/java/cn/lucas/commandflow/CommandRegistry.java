@@ -0,0 +1,347 @@
+package cn.lucas.commandflow;
+
+import cn.lucas.commandflow.index.NameTrie;
+import cn.lucas.commandflow.model.CommandInfo;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * 命令注册表快照
+ * <p>
+ * 注册表不可变, 注册命令时基于当前快照构建新的快照再整体替换, 因此读取时无需加锁
+ */
+public final class CommandRegistry {
+    static final CommandRegistry EMPTY = new CommandRegistry(Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<String, CommandInfo> commands;
+    private final Map<String, CommandInfo> aliases;
+    /**
+     * 命令名称和别名的前缀树, 首次查找相近命令或补全时构建
+     */
+    private volatile NameTrie<CommandInfo> nameIndex;
+
+    private CommandRegistry(Map<String, CommandInfo> commands, Map<String, CommandInfo> aliases) {
+        this.commands = commands;
+        this.aliases = aliases;
+    }
+
+    /**
+     * 按名称或别名获取主命令
+     *
+     * @param name 小写的命令名称或别名
+     */
+    CommandInfo lookup(String name) {
+        CommandInfo command = commands.get(name);
+        if (command == null) {
+            command = aliases.get(name);
+        }
+        return command;
+    }
+
+    /**
+     * 按名称或别名获取主命令, 不区分大小写
+     */
+    public CommandInfo getCommand(String name) {
+        return lookup(name.toLowerCase());
+    }
+
+    /**
+     * 是否包含命令, 不区分大小写
+     */
+    public boolean hasCommand(String name) {
+        String key = name.toLowerCase();
+        return commands.containsKey(key) || aliases.containsKey(key);
+    }
+
+    /**
+     * 获取所有主命令
+     */
+    public Collection<CommandInfo> getCommands() {
+        return Collections.unmodifiableCollection(commands.values());
+    }
+
+    /**
+     * 获取别名映射, 键为小写别名
+     */
+    public Map<String, CommandInfo> getAliases() {
+        return Collections.unmodifiableMap(aliases);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * 查找与输入相近的命令名称和别名, 用于提示拼写错误
+     *
+     * @param name  小写的命令名称
+     * @param limit 最多返回的个数
+     * @return 按编辑距离排序的名称, 没有相近的名称时返回空列表
+     */
+    public List<String> suggest(String name, int limit) {
+        // 短名称只允许一处差异, 否则几乎所有短命令都会被视为相近
+        int maxDistance = Math.min(2, (name.length() + 1) / 2);
+        return getNameIndex().search(name, maxDistance, limit);
+    }
+
+    /**
+     * 获取主命令名称和别名的前缀树, 键为小写的名称或别名
+     */
+    public NameTrie<CommandInfo> getNameIndex() {
+        NameTrie<CommandInfo> index = nameIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = nameIndex;
+                if (index == null) {
+                    Map<String, CommandInfo> names = new HashMap<>(aliases);
+                    names.putAll(commands);
+                    index = NameTrie.build(names);
+                    nameIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * 注册表编辑器, 在当前快照的副本上修改, 完成后构建新的快照
+     */
+    static final class Editor {
+        private final Map<String, CommandInfo> commands;
+        private final Map<String, CommandInfo> aliases;
+
+        private Editor(CommandRegistry source) {
+            this.commands = new HashMap<>(source.commands);
+            this.aliases = new HashMap<>(source.aliases);
+        }
+
+        CommandInfo lookup(String name) {
+            CommandInfo command = commands.get(name);
+            if (command == null) {
+                command = aliases.get(name);
+            }
+            return command;
+        }
+
+        boolean containsCommand(String name) {
+            return commands.containsKey(name);
+        }
+
+        /**
+         * 添加主命令, 同名命令将被替换, 其别名一并移除
+         */
+        void putCommand(CommandInfo command) {
+            CommandInfo previous = commands.put(command.getName(), command);
+            if (previous != null) {
+                removeAliases(previous);
+            }
+            for (String alias : command.getAliases()) {
+                aliases.put(alias.toLowerCase(), command);
+            }
+        }
+
+        /**
+         * 移除主命令及其别名和子命令
+         *
+         * @param name 小写的命令名称
+         * @return 被移除的命令, 不存在时返回null
+         */
+        CommandInfo removeCommand(String name) {
+            CommandInfo removed = commands.remove(name);
+            if (removed != null) {
+                removeAliases(removed);
+            }
+            return removed;
+        }
+
+        /**
+         * 在指定路径下添加子命令, 路径上的命令将被复制替换
+         *
+         * @param parentPath 小写的父命令路径
+         * @param subCommand 子命令
+         * @return 父命令不存在时返回false
+         */
+        boolean putSubCommand(String[] parentPath, CommandInfo subCommand) {
+            List<CommandInfo> chain = resolvePath(parentPath);
+            if (chain == null) {
+                return false;
+            }
+            replacePath(chain, chain.get(chain.size() - 1).withSubCommand(subCommand));
+            return true;
+        }
+
+        /**
+         * 查找路径上的命令或子命令
+         *
+         * @param path 小写的命令路径
+         * @return 命令不存在时返回null
+         */
+        CommandInfo findCommand(String[] path) {
+            List<CommandInfo> chain = resolvePath(path);
+            return chain != null ? chain.get(chain.size() - 1) : null;
+        }
+
+        /**
+         * 在指定路径下添加子命令, 已存在同名子命令时保留现有子命令
+         *
+         * @return 父命令不存在时返回false
+         */
+        boolean putSubCommandIfAbsent(String[] parentPath, CommandInfo subCommand) {
+            List<CommandInfo> chain = resolvePath(parentPath);
+            if (chain == null) {
+                return false;
+            }
+            CommandInfo parent = chain.get(chain.size() - 1);
+            if (parent.findSubCommand(subCommand.getName()) == null) {
+                replacePath(chain, parent.withSubCommand(subCommand));
+            }
+            return true;
+        }
+
+        /**
+         * 修改命令或子命令的启用状态
+         *
+         * @param path 小写的命令路径
+         * @return 命令不存在时返回false
+         */
+        boolean setEnabled(String[] path, boolean enabled) {
+            List<CommandInfo> chain = resolvePath(path);
+            if (chain == null) {
+                return false;
+            }
+            replacePath(chain, chain.get(chain.size() - 1).withEnabled(enabled));
+            return true;
+        }
+
+        /**
+         * 移除处理器注册的所有命令和子命令
+         * <p>
+         * 被移除的主命令下由其他处理器注册的子命令放入orphans, 键为父命令路径
+         *
+         * @return 是否移除了命令
+         */
+        boolean removeHandler(Object handler, List<Map.Entry<String, CommandInfo>> orphans) {
+            boolean changed = false;
+            for (CommandInfo command : new ArrayList<>(commands.values())) {
+                if (command.getHandler() == handler) {
+                    removeCommand(command.getName());
+                    collectOrphans(command.getName(), command, handler, orphans);
+                    changed = true;
+                } else {
+                    CommandInfo pruned = prune(command, handler, command.getName(), orphans);
+                    if (pruned != command) {
+                        replaceRoot(command, pruned);
+                        changed = true;
+                    }
+                }
+            }
+            return changed;
+        }
+
+        private static CommandInfo prune(CommandInfo command, Object handler, String path,
+                                         List<Map.Entry<String, CommandInfo>> orphans) {
+            CommandInfo result = command;
+            for (CommandInfo subCommand : command.getSubCommands()) {
+                String subPath = path + " " + subCommand.getName();
+                if (subCommand.getHandler() == handler) {
+                    result = result.withoutSubCommand(subCommand.getName());
+                    collectOrphans(subPath, subCommand, handler, orphans);
+                } else {
+                    CommandInfo pruned = prune(subCommand, handler, subPath, orphans);
+                    if (pruned != subCommand) {
+                        result = result.withSubCommand(pruned);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static void collectOrphans(String path, CommandInfo removed, Object handler,
+                                           List<Map.Entry<String, CommandInfo>> orphans) {
+            for (CommandInfo subCommand : removed.getSubCommands()) {
+                if (subCommand.getHandler() != handler) {
+                    orphans.add(new AbstractMap.SimpleImmutableEntry<>(path, subCommand));
+                } else {
+                    collectOrphans(path + " " + subCommand.getName(), subCommand, handler, orphans);
+                }
+            }
+        }
+
+        /**
+         * 用function的结果替换每个主命令, 返回原实例的命令保持不变
+         */
+        void replaceCommands(UnaryOperator<CommandInfo> function) {
+            for (CommandInfo command : new ArrayList<>(commands.values())) {
+                CommandInfo replacement = function.apply(command);
+                if (replacement != command) {
+                    replaceRoot(command, replacement);
+                }
+            }
+        }
+
+        /**
+         * 查找路径上的所有命令, 任一级不存在时返回null
+         */
+        private List<CommandInfo> resolvePath(String[] path) {
+            if (path.length == 0) {
+                return null;
+            }
+
+            List<CommandInfo> chain = new ArrayList<>(path.length);
+            CommandInfo current = lookup(path[0]);
+            for (int i = 0; current != null; i++) {
+                chain.add(current);
+                if (i + 1 == path.length) {
+                    break;
+                }
+                current = current.findSubCommand(path[i + 1]);
+            }
+            return chain.size() == path.length ? chain : null;
+        }
+
+        /**
+         * 用replacement替换路径上的最后一个命令, 并自下而上复制替换路径上的其他命令
+         */
+        private void replacePath(List<CommandInfo> chain, CommandInfo replacement) {
+            CommandInfo updated = replacement;
+            for (int i = chain.size() - 2; i >= 0; i--) {
+                updated = chain.get(i).withSubCommand(updated);
+            }
+            replaceRoot(chain.get(0), updated);
+        }
+
+        private void replaceRoot(CommandInfo previous, CommandInfo replacement) {
+            commands.put(replacement.getName(), replacement);
+            for (String alias : previous.getAliases()) {
+                String key = alias.toLowerCase();
+                if (aliases.get(key) == previous) {
+                    aliases.put(key, replacement);
+                }
+            }
+        }
+
+        private void removeAliases(CommandInfo command) {
+            for (String alias : command.getAliases()) {
+                String key = alias.toLowerCase();
+                if (aliases.get(key) == command) {
+                    aliases.remove(key);
+                }
+            }
+        }
+
+        CommandRegistry build() {
+            return new CommandRegistry(commands, aliases);
+        }
+    }
+}
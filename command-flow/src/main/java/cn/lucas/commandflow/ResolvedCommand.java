@@ -0,0 +1,64 @@
+package cn.lucas.commandflow;
+
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandInfo;
+import cn.lucas.commandflow.model.CommandResult;
+
+/**
+ * 命令解析结果
+ * <p>
+ * 解析成功时包含最终执行的命令及其上下文, 失败时包含错误结果
+ */
+final class ResolvedCommand {
+    private final CommandInfo command;
+    private final CommandContext context;
+    private final CommandResult failure;
+    private final String path;
+
+    private ResolvedCommand(CommandInfo root, CommandInfo command, CommandContext context, CommandResult failure,
+                            String path) {
+        this.command = command;
+        this.context = context;
+        this.failure = failure;
+        this.path = path != null ? path : root != null ? root.getName() : "";
+    }
+
+    /**
+     * @param path 解析时经过的命令路径, 为null时使用主命令名称
+     */
+    static ResolvedCommand of(CommandInfo root, CommandInfo command, CommandContext context, String path) {
+        return new ResolvedCommand(root, command, context, null, path);
+    }
+
+    static ResolvedCommand failed(CommandResult failure) {
+        return new ResolvedCommand(null, null, null, failure, null);
+    }
+
+    static ResolvedCommand failed(CommandInfo root, CommandResult failure) {
+        return new ResolvedCommand(root, null, null, failure, null);
+    }
+
+    /**
+     * 获取命令路径, 例如 "todo add"; 未找到主命令时返回空字符串, 子命令检查失败时返回主命令名称.
+     * 子命令的路径只在解析时已启用命令日志的情况下记录, 否则同样返回主命令名称
+     */
+    String getPath() {
+        return path;
+    }
+
+    CommandInfo getCommand() {
+        return command;
+    }
+
+    CommandContext getContext() {
+        return context;
+    }
+
+    CommandResult getFailure() {
+        return failure;
+    }
+
+    boolean isResolved() {
+        return failure == null;
+    }
+}
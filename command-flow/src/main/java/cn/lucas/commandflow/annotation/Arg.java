@@ -0,0 +1,30 @@
+package cn.lucas.commandflow.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 用于标记命令方法的类型化参数
+ * <p>
+ * 按声明顺序依次绑定命令参数, 注册时确定参数转换器, 转换失败时不会调用命令方法
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Arg {
+    /**
+     * 参数名称
+     */
+    String value();
+
+    /**
+     * 是否必填
+     */
+    boolean required() default true;
+
+    /**
+     * 非必填参数缺省时使用的值, 为空时使用null或基本类型的零值
+     */
+    String defaultValue() default "";
+}
@@ -0,0 +1,83 @@
+package cn.lucas.commandflow.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 用于标记子命令方法的注解
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SubCommand {
+    /**
+     * 子命令名称
+     */
+    String name();
+
+    /**
+     * 父命令名称, 多级子命令使用空格分隔的路径, 例如 "cluster node"
+     */
+    String parent();
+
+    /**
+     * 子命令描述
+     */
+    String description() default "";
+
+    /**
+     * 子命令别名
+     */
+    String[] aliases() default {};
+
+    /**
+     * 权限节点, 为空时只检查父命令的权限
+     */
+    String permission() default "";
+
+    /**
+     * 使用示例
+     */
+    String usage() default "";
+
+    /**
+     * 命令分类, 为空时继承父命令的分类
+     */
+    String category() default "";
+
+    /**
+     * 是否启用
+     */
+    boolean enabled() default true;
+
+    /**
+     * 批量执行时是否允许与其他命令并行, 访问处理器共享状态的命令应设为false
+     */
+    boolean parallel() default true;
+
+    /**
+     * 每秒允许的执行次数, 所有发送者共享, 0表示不限流
+     */
+    double rateLimit() default 0;
+
+    /**
+     * 允许的最大突发次数, 0表示与每秒执行次数相同
+     */
+    int rateBurst() default 0;
+
+    /**
+     * 执行成功的结果缓存的毫秒数, 0表示不缓存; 只应用于结果只取决于参数的命令
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * 缓存结果是否按发送者区分
+     */
+    boolean cachePerSender() default false;
+
+    /**
+     * 执行超时的毫秒数, 0表示不限制; 超时后命令上下文被取消, 调用者收到超时结果
+     */
+    long timeout() default 0;
+}
@@ -0,0 +1,208 @@
+package cn.lucas.commandflow.cache;
+
+import cn.lucas.commandflow.model.CommandInfo;
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 命令结果缓存
+ * <p>
+ * 以命令、参数和可选的发送者为键缓存执行成功的结果. 缓存分为多个段, 每段按LRU淘汰;
+ * 同一个键同时未命中时只执行一次命令, 其他调用者等待并共享结果.
+ */
+public class ResultCache {
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResultCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries 最大缓存条目数
+     */
+    public ResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries必须大于0");
+        }
+        int segmentCount = Math.min(SEGMENT_COUNT, maxEntries);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment((maxEntries + segmentCount - 1) / segmentCount);
+        }
+    }
+
+    /**
+     * 获取缓存的结果, 未命中或已过期时调用loader, 只缓存执行成功的结果
+     *
+     * @param command 命令
+     * @param args    参数
+     * @param sender  发送者, 不按发送者区分时传入null
+     * @param loader  执行命令
+     */
+    public CommandResult get(CommandInfo command, String[] args, Object sender, Supplier<CommandResult> loader) {
+        Key key = new Key(command, args, sender);
+        Segment segment = segments[(key.hash & 0x7FFFFFFF) % segments.length];
+        long now = System.nanoTime();
+
+        CacheEntry entry;
+        boolean loading = false;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry == null || entry.isExpired(now)) {
+                entry = new CacheEntry();
+                segment.put(key, entry);
+                loading = true;
+            }
+        }
+
+        if (!loading) {
+            hits.increment();
+            try {
+                return entry.future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        misses.increment();
+        CommandResult result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException | Error e) {
+            remove(segment, key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+        if (result.isSuccess()) {
+            entry.expiresAt = System.nanoTime() + command.getCacheTtl() * 1_000_000L;
+            entry.loaded = true;
+        } else {
+            remove(segment, key, entry);
+        }
+        entry.future.complete(result);
+        return result;
+    }
+
+    /**
+     * 移除处理器所有命令的缓存结果
+     */
+    public void invalidate(Object handler) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.keySet().removeIf(key -> key.command.getHandler() == handler);
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static void remove(Segment segment, Key key, CacheEntry entry) {
+        synchronized (segment) {
+            segment.remove(key, entry);
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<Key, CacheEntry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CacheEntry> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private static final class CacheEntry {
+        private final CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        private volatile long expiresAt;
+        /**
+         * 执行完成前不会过期, 等待中的调用者共享同一次执行
+         */
+        private volatile boolean loaded;
+
+        private boolean isExpired(long now) {
+            return loaded && expiresAt - now < 0;
+        }
+    }
+
+    private static final class Key {
+        private final CommandInfo command;
+        private final String[] args;
+        private final Object sender;
+        private final int hash;
+
+        private Key(CommandInfo command, String[] args, Object sender) {
+            this.command = command;
+            this.args = args;
+            this.sender = sender;
+            int h = System.identityHashCode(command);
+            h = 31 * h + Arrays.hashCode(args);
+            h = 31 * h + (sender != null ? sender.hashCode() : 0);
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return command == other.command
+                    && Arrays.equals(args, other.args)
+                    && (sender == null ? other.sender == null : sender.equals(other.sender));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package cn.lucas.commandflow.converter;
+
+import cn.lucas.commandflow.model.CommandContext;
+
+/**
+ * 参数转换器
+ *
+ * @param <T> 目标类型
+ */
+@FunctionalInterface
+public interface ArgumentConverter<T> {
+    /**
+     * 转换参数, 不应抛出异常
+     *
+     * @param input   参数字符串
+     * @param context 命令上下文
+     * @return 转换结果, 无法转换时返回null
+     */
+    T convert(String input, CommandContext context);
+}
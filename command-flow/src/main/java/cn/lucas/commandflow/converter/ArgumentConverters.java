@@ -0,0 +1,177 @@
+package cn.lucas.commandflow.converter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 参数转换器注册表, 内置字符串、数值、布尔和枚举类型的转换器
+ */
+public class ArgumentConverters {
+    private static final long INVALID_LONG = Long.MIN_VALUE;
+
+    private final Map<Class<?>, ArgumentConverter<?>> converters = new ConcurrentHashMap<>();
+
+    public ArgumentConverters() {
+        register(String.class, (input, context) -> input);
+        ArgumentConverter<Integer> intConverter = (input, context) -> {
+            long value = parseLong(input);
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : null;
+        };
+        register(int.class, intConverter);
+        register(Integer.class, intConverter);
+        ArgumentConverter<Long> longConverter = (input, context) -> {
+            long value = parseLong(input);
+            return value != INVALID_LONG || isLongMinValue(input) ? value : null;
+        };
+        register(long.class, longConverter);
+        register(Long.class, longConverter);
+        ArgumentConverter<Double> doubleConverter = (input, context) ->
+                isDecimal(input) ? Double.parseDouble(input) : null;
+        register(double.class, doubleConverter);
+        register(Double.class, doubleConverter);
+        ArgumentConverter<Float> floatConverter = (input, context) ->
+                isDecimal(input) ? Float.parseFloat(input) : null;
+        register(float.class, floatConverter);
+        register(Float.class, floatConverter);
+        ArgumentConverter<Boolean> booleanConverter = (input, context) -> parseBoolean(input);
+        register(boolean.class, booleanConverter);
+        register(Boolean.class, booleanConverter);
+    }
+
+    /**
+     * 注册转换器, 同一类型的转换器将被覆盖
+     */
+    public <T> void register(Class<T> type, ArgumentConverter<? extends T> converter) {
+        converters.put(type, converter);
+    }
+
+    /**
+     * 查找类型对应的转换器, 枚举类型按名称 (不区分大小写) 转换
+     *
+     * @return 转换器, 不存在时返回null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> ArgumentConverter<T> find(Class<T> type) {
+        ArgumentConverter<?> converter = converters.get(type);
+        if (converter == null && type.isEnum()) {
+            converter = enumConverter((Class) type);
+        }
+        return (ArgumentConverter<T>) converter;
+    }
+
+    private static <E extends Enum<E>> ArgumentConverter<E> enumConverter(Class<E> type) {
+        E[] constants = type.getEnumConstants();
+        return (input, context) -> {
+            for (E constant : constants) {
+                if (constant.name().equalsIgnoreCase(input)) {
+                    return constant;
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * 解析十进制整数, 无效或溢出时返回 {@link #INVALID_LONG}; 返回值等于 {@link Long#MIN_VALUE} 时
+     * 需要用 {@link #isLongMinValue(String)} 区分输入本身就是最小值的情况
+     */
+    private static long parseLong(String input) {
+        int length = input.length();
+        if (length == 0) {
+            return INVALID_LONG;
+        }
+
+        int i = 0;
+        boolean negative = false;
+        char first = input.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (length == 1) {
+                return INVALID_LONG;
+            }
+        }
+
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < (Long.MIN_VALUE + digit) / 10) {
+                return INVALID_LONG;
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            return result == Long.MIN_VALUE ? INVALID_LONG : -result;
+        }
+        return result;
+    }
+
+    /**
+     * 输入是否为 {@link Long#MIN_VALUE} 的十进制表示 (可以有前导零), 仅在解析结果等于哨兵值时调用
+     */
+    private static boolean isLongMinValue(String input) {
+        if (input.isEmpty() || input.charAt(0) != '-') {
+            return false;
+        }
+        int i = 1;
+        while (i < input.length() - 1 && input.charAt(i) == '0') {
+            i++;
+        }
+        return input.length() - i == 19 && input.regionMatches(i, "9223372036854775808", 0, 19);
+    }
+
+    /**
+     * 检查是否为十进制小数, 校验通过后解析不会抛出异常
+     */
+    private static boolean isDecimal(String input) {
+        int length = input.length();
+        int i = 0;
+        if (i < length && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+            i++;
+        }
+
+        int digits = 0;
+        boolean dot = false;
+        for (; i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < length && (input.charAt(i) == 'e' || input.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < length && input.charAt(i) >= '0' && input.charAt(i) <= '9') {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static Boolean parseBoolean(String input) {
+        if ("true".equalsIgnoreCase(input) || "yes".equalsIgnoreCase(input)
+                || "on".equalsIgnoreCase(input) || "1".equals(input)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(input) || "no".equalsIgnoreCase(input)
+                || "off".equalsIgnoreCase(input) || "0".equals(input)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+}
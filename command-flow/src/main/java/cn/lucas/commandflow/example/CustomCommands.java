@@ -1,5 +1,6 @@
 package cn.lucas.commandflow.example;
 
+import cn.lucas.commandflow.annotation.Arg;
 import cn.lucas.commandflow.annotation.Command;
 import cn.lucas.commandflow.annotation.SubCommand;
 import cn.lucas.commandflow.model.CommandContext;
@@ -20,13 +21,9 @@ public class CustomCommands {
             description = "待办事项管理",
             aliases = {"task"},
             category = "UTILITY",
-            usage = "todo <子命令> [参数]"
+            usage = "todo <子命令> [参数...]"
     )
     public CommandResult todo(CommandContext context) {
-        if (context.getArgs().length == 0) {
-            return CommandResult.syntaxError("请指定子命令，使用 'todo help' 查看帮助");
-        }
-
         return CommandResult.success("使用子命令: todo " + context.getArgs()[0]);
     }
 
@@ -34,13 +31,10 @@ public class CustomCommands {
             name = "add",
             parent = "todo",
             description = "添加待办事项",
-            usage = "todo add <内容>"
+            usage = "todo add <内容...>",
+            parallel = false
     )
     public CommandResult todoAdd(CommandContext context) {
-        if (context.getArgs().length == 0) {
-            return CommandResult.syntaxError("用法: todo add <内容>");
-        }
-
         String task = String.join(" ", context.getArgs());
         todoList.add(task);
 
@@ -51,7 +45,8 @@ public class CustomCommands {
             name = "list",
             parent = "todo",
             description = "列出所有待办事项",
-            aliases = {"ls"}
+            aliases = {"ls"},
+            parallel = false
     )
     public CommandResult todoList() {
         if (todoList.isEmpty()) {
@@ -63,7 +58,8 @@ public class CustomCommands {
             sb.append(i + 1).append(". ").append(todoList.get(i)).append("\n");
         }
 
-        return CommandResult.success(sb.toString());
+        // 列表副本作为数据, 可通过管道传给下一个命令, 例如 todo list | filter 买
+        return CommandResult.success(sb.toString(), new ArrayList<>(todoList));
     }
 
     @SubCommand(
@@ -71,30 +67,24 @@ public class CustomCommands {
             parent = "todo",
             description = "删除待办事项",
             aliases = {"rm", "delete"},
-            usage = "todo remove <编号>"
+            usage = "todo remove <编号>",
+            parallel = false
     )
-    public CommandResult todoRemove(CommandContext context) {
-        if (context.getArgs().length == 0) {
-            return CommandResult.syntaxError("用法: todo remove <编号>");
+    public CommandResult todoRemove(@Arg("编号") int number) {
+        int index = number - 1;
+        if (index < 0 || index >= todoList.size()) {
+            return CommandResult.error("无效的待办事项编号");
         }
 
-        try {
-            int index = Integer.parseInt(context.getArgs()[0]) - 1;
-            if (index < 0 || index >= todoList.size()) {
-                return CommandResult.error("无效的待办事项编号");
-            }
-
-            String removed = todoList.remove(index);
-            return CommandResult.success("已删除待办事项: " + removed);
-        } catch (NumberFormatException e) {
-            return CommandResult.syntaxError("编号必须是数字");
-        }
+        String removed = todoList.remove(index);
+        return CommandResult.success("已删除待办事项: " + removed);
     }
-    
+
     @SubCommand(
             name = "clear",
             parent = "todo",
-            description = "清空待办事项列表"
+            description = "清空待办事项列表",
+            parallel = false
     )
     public CommandResult todoClear() {
         int count = todoList.size();
@@ -109,7 +99,7 @@ public class CustomCommands {
             description = "显示待办事项命令帮助"
     )
     public CommandResult todoHelp() {
-        String sb = "待办事项命令帮助:\n" + "todo add <内容> - 添加待办事项\n" +
+        String sb = "待办事项命令帮助:\n" + "todo add <内容...> - 添加待办事项\n" +
                 "todo list - 列出所有待办事项\n" +
                 "todo remove <编号> - 删除待办事项\n" +
                 "todo clear - 清空待办事项列表\n";
@@ -117,17 +107,47 @@ public class CustomCommands {
         return CommandResult.success(sb);
     }
 
+    @Command(
+            name = "filter",
+            description = "筛选管道输入中包含关键字的元素",
+            category = "UTILITY",
+            usage = "filter <关键字...>"
+    )
+    public CommandResult filter(CommandContext context) {
+        if (!context.hasInput()) {
+            return CommandResult.syntaxError("filter 需要管道输入, 例如: todo list | filter 买");
+        }
+
+        String keyword = String.join(" ", context.getArgs());
+        List<Object> matched = new ArrayList<>();
+        int[] count = {0};
+        // 边读取边筛选, 有下游命令时逐个传给下游
+        context.streamInput()
+                .filter(element -> String.valueOf(element).contains(keyword))
+                .forEach(element -> {
+                    count[0]++;
+                    if (!context.emit(element)) {
+                        matched.add(element);
+                    }
+                });
+
+        if (context.hasOutput()) {
+            return CommandResult.success("匹配 " + count[0] + " 项");
+        }
+        StringBuilder sb = new StringBuilder("匹配 " + count[0] + " 项:");
+        for (Object element : matched) {
+            sb.append("\n").append(element);
+        }
+        return CommandResult.success(sb.toString(), matched);
+    }
+
     @Command(
             name = "calc",
             description = "简单计算器",
             category = "UTILITY",
-            usage = "calc <表达式>"
+            usage = "calc <表达式...>"
     )
     public CommandResult calc(CommandContext context) {
-        if (context.getArgs().length == 0) {
-            return CommandResult.syntaxError("用法: calc <表达式>");
-        }
-
         String expression = String.join(" ", context.getArgs());
         try {
             // 这里仅做简单示例，实际应用中需要更复杂的表达式解析
@@ -20,8 +20,8 @@ public class Main {
                 .autoStart(true)
                 .build();
 
-        // 或者直接使用以下方式
-        // CommandFlow commandFlow = CommandFlow.getInstance();
+        // 或者直接使用以下方式, 每个实例拥有独立的命令集合
+        // CommandFlow commandFlow = new CommandFlow();
         // commandFlow.registerHandler(systemCommands);
         // commandFlow.registerHandler(customCommands);
         // commandFlow.initConsoleInput();
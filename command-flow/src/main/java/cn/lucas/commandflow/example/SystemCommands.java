@@ -15,7 +15,8 @@ public class SystemCommands {
             description = "显示所有可用的命令",
             aliases = {"?", "commands"},
             category = "SYSTEM",
-            usage = "help [命令名]"
+            usage = "help [命令名]",
+            cacheTtl = 60_000
     )
     public CommandResult help(CommandContext context) {
         // 实际实现会从CommandFlow获取所有命令信息
@@ -31,7 +32,8 @@ public class SystemCommands {
             name = "version",
             description = "显示系统版本信息",
             aliases = {"ver", "v"},
-            category = "SYSTEM"
+            category = "SYSTEM",
+            cacheTtl = 60_000
     )
     public CommandResult version() {
         return CommandResult.success("CommandFlow 版本 1.0.0");
@@ -40,13 +42,9 @@ public class SystemCommands {
     @Command(
             name = "echo",
             description = "回显输入的文本",
-            usage = "echo <文本>"
+            usage = "echo <文本...>"
     )
     public CommandResult echo(CommandContext context) {
-        if (context.getArgs().length == 0) {
-            return CommandResult.syntaxError("用法: echo <文本>");
-        }
-
         String message = String.join(" ", context.getArgs());
         return CommandResult.success(message);
     }
@@ -56,13 +54,9 @@ public class SystemCommands {
             description = "系统相关命令",
             aliases = {"sys"},
             category = "SYSTEM",
-            usage = "system <子命令> [参数]"
+            usage = "system <子命令> [参数...]"
     )
     public CommandResult system(CommandContext context) {
-        if (context.getArgs().length == 0) {
-            return CommandResult.syntaxError("请指定子命令，使用 'system help' 查看帮助");
-        }
-
         return CommandResult.success("使用子命令: system " + context.getArgs()[0]);
     }
 
@@ -70,7 +64,11 @@ public class SystemCommands {
             name = "info",
             parent = "system",
             description = "显示系统信息",
-            aliases = {"i"}
+            aliases = {"i"},
+            rateLimit = 2,
+            rateBurst = 5,
+            cacheTtl = 1000,
+            timeout = 5000
     )
     public CommandResult systemInfo() {
         String sb = "系统信息:\n" + "操作系统: " + System.getProperty("os.name") + "\n" +
@@ -86,7 +84,8 @@ public class SystemCommands {
             name = "memory",
             parent = "system",
             description = "显示内存使用情况",
-            aliases = {"mem"}
+            aliases = {"mem"},
+            timeout = 5000
     )
     public CommandResult systemMemory() {
         Runtime runtime = Runtime.getRuntime();
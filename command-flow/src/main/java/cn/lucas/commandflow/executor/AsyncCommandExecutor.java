@@ -0,0 +1,151 @@
+package cn.lucas.commandflow.executor;
+
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 有界的异步命令执行器
+ * <p>
+ * 通过许可数限制已提交但未完成的命令数量, 超出限制时按拒绝策略处理, 而不是让队列无限增长
+ */
+public class AsyncCommandExecutor {
+    public static final int DEFAULT_MAX_PENDING = 1024;
+
+    private final Executor executor;
+    private final Semaphore permits;
+    private final int maxPending;
+    private final RejectionPolicy rejectionPolicy;
+    private final boolean ownsExecutor;
+
+    public AsyncCommandExecutor(Executor executor, int maxPending, RejectionPolicy rejectionPolicy) {
+        this(executor, maxPending, rejectionPolicy, false);
+    }
+
+    AsyncCommandExecutor(Executor executor, int maxPending, RejectionPolicy rejectionPolicy, boolean ownsExecutor) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maxPending必须大于0");
+        }
+        this.executor = executor;
+        this.permits = new Semaphore(maxPending);
+        this.maxPending = maxPending;
+        this.rejectionPolicy = rejectionPolicy;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * 创建使用默认线程池的执行器, 线程池随执行器关闭
+     */
+    public static AsyncCommandExecutor createDefault() {
+        return createDefault(DEFAULT_MAX_PENDING, RejectionPolicy.ABORT);
+    }
+
+    /**
+     * 创建使用默认线程池的执行器, 线程池随执行器关闭
+     *
+     * @param maxPending      最大未完成命令数
+     * @param rejectionPolicy 拒绝策略
+     */
+    public static AsyncCommandExecutor createDefault(int maxPending, RejectionPolicy rejectionPolicy) {
+        return new AsyncCommandExecutor(CommandExecutors.fixed(Runtime.getRuntime().availableProcessors()),
+                maxPending, rejectionPolicy, true);
+    }
+
+    /**
+     * 提交命令任务
+     *
+     * @param task 命令任务
+     * @return 命令结果
+     */
+    public CompletableFuture<CommandResult> submit(Supplier<CommandResult> task) {
+        if (!permits.tryAcquire()) {
+            return reject(task);
+        }
+
+        CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return reject(task);
+        }
+        return future;
+    }
+
+    /**
+     * 尝试提交任务, 许可不足或执行器拒绝时返回false且不执行任务
+     *
+     * @param task 任务
+     * @return 是否已提交
+     */
+    public boolean tryExecute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return false;
+        }
+    }
+
+    private CompletableFuture<CommandResult> reject(Supplier<CommandResult> task) {
+        if (rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+            // 与线程池中执行的任务一致, 异常通过future返回而不是直接抛给调用者
+            CompletableFuture<CommandResult> future = new CompletableFuture<>();
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        return CompletableFuture.completedFuture(CommandResult.error("命令队列已满, 请稍后重试"));
+    }
+
+    /**
+     * 获取等待或正在执行的命令数量
+     */
+    public int getPendingCount() {
+        return maxPending - permits.availablePermits();
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * 关闭执行器, 仅关闭由本执行器创建的线程池
+     */
+    public void shutdown() {
+        if (ownsExecutor && executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
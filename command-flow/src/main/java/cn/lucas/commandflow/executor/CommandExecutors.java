@@ -0,0 +1,91 @@
+package cn.lucas.commandflow.executor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 常用命令执行器工厂
+ */
+public final class CommandExecutors {
+
+    private CommandExecutors() {
+    }
+
+    /**
+     * 固定大小的线程池
+     *
+     * @param threads 线程数
+     */
+    public static ExecutorService fixed(int threads) {
+        return Executors.newFixedThreadPool(threads, daemonThreadFactory("CommandFlow-worker-"));
+    }
+
+    /**
+     * 按需创建线程的线程池, 空闲线程60秒后回收
+     *
+     * @param prefix 线程名前缀
+     */
+    public static ExecutorService cached(String prefix) {
+        return Executors.newCachedThreadPool(daemonThreadFactory(prefix));
+    }
+
+    /**
+     * 按需创建线程、线程数有上限的线程池, 空闲线程60秒后回收; 线程已满时拒绝新任务而不是排队
+     *
+     * @param prefix     线程名前缀
+     * @param maxThreads 最大线程数
+     */
+    public static ExecutorService cached(String prefix, int maxThreads) {
+        return new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                daemonThreadFactory(prefix));
+    }
+
+    /**
+     * ForkJoin线程池
+     *
+     * @param parallelism 并行度
+     */
+    public static ExecutorService forkJoin(int parallelism) {
+        return new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    /**
+     * 每个命令一个虚拟线程, 运行时不支持虚拟线程时退化为固定大小的线程池
+     */
+    public static ExecutorService virtual() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return fixed(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     */
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package cn.lucas.commandflow.executor;
+
+import cn.lucas.commandflow.model.CommandContext;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 命令执行超时
+ * <p>
+ * 所有超时由一个共享的定时线程触发, 而不是为每次调用创建监视线程. 超时时取消命令上下文并中断执行命令的线程,
+ * 命令在超时前完成时撤销定时任务. 中断只发生在命令执行期间, 不会泄漏到线程之后执行的其他任务.
+ */
+public final class CommandTimeout implements Runnable {
+    private static final int RUNNING = 0;
+    private static final int COMPLETED = 1;
+    private static final int TIMING_OUT = 2;
+    private static final int TIMED_OUT = 3;
+
+    private final CommandContext context;
+    private final Thread thread;
+    private final Runnable onTimeout;
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private volatile ScheduledFuture<?> future;
+
+    private CommandTimeout(CommandContext context, Thread thread, Runnable onTimeout) {
+        this.context = context;
+        this.thread = thread;
+        this.onTimeout = onTimeout;
+    }
+
+    /**
+     * 为当前线程中执行的命令开始计时
+     *
+     * @param timeoutMillis 超时的毫秒数
+     * @param onTimeout     超时时在定时线程中执行, 可以为null
+     */
+    public static CommandTimeout start(CommandContext context, long timeoutMillis, Runnable onTimeout) {
+        CommandTimeout timeout = new CommandTimeout(context, Thread.currentThread(), onTimeout);
+        timeout.future = TimerHolder.TIMER.schedule(timeout, timeoutMillis, TimeUnit.MILLISECONDS);
+        return timeout;
+    }
+
+    @Override
+    public void run() {
+        if (!state.compareAndSet(RUNNING, TIMING_OUT)) {
+            return;
+        }
+        try {
+            context.cancel();
+            thread.interrupt();
+        } finally {
+            state.set(TIMED_OUT);
+        }
+        if (onTimeout != null) {
+            onTimeout.run();
+        }
+    }
+
+    /**
+     * 命令执行结束, 必须在执行命令的线程中调用
+     *
+     * @return 命令在超时前完成时返回true; 已超时时返回false, 并清除超时产生的中断状态
+     */
+    public boolean complete() {
+        if (state.compareAndSet(RUNNING, COMPLETED)) {
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            return true;
+        }
+        // 等待定时线程完成中断后再清除中断状态
+        while (state.get() != TIMED_OUT) {
+            Thread.yield();
+        }
+        Thread.interrupted();
+        return false;
+    }
+
+    private static final class TimerHolder {
+        private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+        private static ScheduledThreadPoolExecutor createTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, task -> {
+                Thread thread = new Thread(task, "CommandFlow-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 撤销的定时任务立即从队列移除, 大多数命令在超时前完成
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+}
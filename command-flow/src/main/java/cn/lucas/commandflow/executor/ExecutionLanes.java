@@ -0,0 +1,277 @@
+package cn.lucas.commandflow.executor;
+
+import cn.lucas.commandflow.model.CommandInfo;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 串行执行通道
+ * <p>
+ * 每个键 (处理器或发送者) 对应一个邮箱, 同一邮箱中的命令按提交顺序执行, 任一时刻最多由一个线程处理;
+ * 不同邮箱在共享线程池中并行执行. 命令方法因此无需加锁即可访问处理器的可变状态.
+ * 邮箱在清空后立即移除, 大量发送者不会使邮箱无限累积.
+ */
+public final class ExecutionLanes {
+    public static final int DEFAULT_MAX_QUEUED = 1024;
+    /**
+     * 线程池中的线程每次最多连续执行的命令数, 之后重新提交以免长时间占用线程
+     */
+    private static final int DRAIN_BATCH = 64;
+
+    /**
+     * 邮箱的划分方式
+     */
+    public enum Mode {
+        /**
+         * 同一处理器中 parallel = false 的命令串行执行
+         */
+        HANDLER,
+        /**
+         * 同一发送者的所有命令串行执行
+         */
+        SENDER
+    }
+
+    private final Mode mode;
+    private final Executor executor;
+    private final int maxQueued;
+    private final boolean ownsExecutor;
+    private final ConcurrentHashMap<Object, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * @param mode      邮箱的划分方式
+     * @param executor  处理邮箱的共享线程池
+     * @param maxQueued 每个邮箱最多排队的命令数
+     */
+    public ExecutionLanes(Mode mode, Executor executor, int maxQueued) {
+        this(mode, executor, maxQueued, false);
+    }
+
+    private ExecutionLanes(Mode mode, Executor executor, int maxQueued, boolean ownsExecutor) {
+        if (maxQueued <= 0) {
+            throw new IllegalArgumentException("maxQueued必须大于0");
+        }
+        this.mode = mode;
+        this.executor = executor;
+        this.maxQueued = maxQueued;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * 创建使用默认线程池的串行执行通道, 线程池随通道关闭
+     */
+    public static ExecutionLanes createDefault(Mode mode) {
+        return new ExecutionLanes(mode, CommandExecutors.fixed(Runtime.getRuntime().availableProcessors()),
+                DEFAULT_MAX_QUEUED, true);
+    }
+
+    /**
+     * 获取命令所属邮箱的键
+     *
+     * @return 命令不需要串行执行时返回null
+     */
+    public Object keyOf(CommandInfo command, Object sender) {
+        if (mode == Mode.HANDLER) {
+            return command.isParallel() ? null : command.getHandler();
+        }
+        return sender;
+    }
+
+    /**
+     * 将任务提交到邮箱, 在线程池中执行
+     *
+     * @return 任务结果, 邮箱已满时以 {@link RejectedExecutionException} 完成
+     */
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+        Task<T> queued = new Task<>(task);
+        int status = enqueue(key, queued);
+        if (status == Mailbox.FULL) {
+            queued.future.completeExceptionally(new RejectedExecutionException("邮箱已满: " + key));
+        } else if (status == Mailbox.OWNED) {
+            schedule(queued.mailbox);
+        }
+        return queued.future;
+    }
+
+    /**
+     * 在邮箱中执行任务并等待结果
+     * <p>
+     * 邮箱空闲时直接在当前线程执行, 否则排队等待前面的任务完成
+     *
+     * @throws RejectedExecutionException 邮箱已满时抛出
+     */
+    public <T> T call(Object key, Supplier<T> task) {
+        if (isDraining(key)) {
+            return task.get();
+        }
+
+        Task<T> queued = new Task<>(task);
+        int status = enqueue(key, queued);
+        if (status == Mailbox.FULL) {
+            throw new RejectedExecutionException("邮箱已满: " + key);
+        }
+        if (status == Mailbox.OWNED && drain(queued.mailbox, 1)) {
+            // 邮箱原本空闲, 任务位于队首, 在当前线程执行后将剩余任务交给线程池
+            schedule(queued.mailbox);
+        }
+        return queued.future.join();
+    }
+
+    /**
+     * 当前线程是否正在处理该键的邮箱 (包括外层嵌套的邮箱), 此时在该邮箱中执行的任务直接运行,
+     * 而等待其他线程执行该邮箱中的任务会造成死锁
+     */
+    public boolean isDraining(Object key) {
+        Mailbox mailbox = mailboxes.get(key);
+        return mailbox != null && mailbox.drainer == Thread.currentThread();
+    }
+
+    /**
+     * 将任务放入邮箱, 邮箱已移除时重新获取
+     *
+     * @return 放入前邮箱空闲时返回OWNED, 由调用者负责处理邮箱; 邮箱已满时返回FULL
+     */
+    private int enqueue(Object key, Task<?> task) {
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(key, Mailbox::new);
+            task.mailbox = mailbox;
+            int result = mailbox.offer(task, maxQueued);
+            if (result != Mailbox.RETIRED) {
+                return result;
+            }
+            // 邮箱已清空并移除, 重新获取
+        }
+    }
+
+    private void schedule(Mailbox mailbox) {
+        try {
+            executor.execute(() -> {
+                if (drain(mailbox, DRAIN_BATCH)) {
+                    schedule(mailbox);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 线程池已关闭, 在当前线程处理剩余任务, 保证已提交的任务都能完成
+            while (drain(mailbox, Integer.MAX_VALUE)) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * 依次执行邮箱中的任务
+     *
+     * @return 执行了limit个任务后邮箱仍有任务时返回true, 调用者需继续处理
+     */
+    private boolean drain(Mailbox mailbox, int limit) {
+        mailbox.drainer = Thread.currentThread();
+        try {
+            for (int i = 0; i < limit; i++) {
+                Runnable task;
+                // 计数先于入队增加, 短暂等待即将入队的任务
+                while ((task = mailbox.queue.poll()) == null) {
+                    Thread.yield();
+                }
+                task.run();
+                if (mailbox.count.decrementAndGet() == 0) {
+                    // 邮箱已清空时移除; 移除失败说明有新任务放入, 由放入任务的线程接手处理
+                    if (mailbox.count.compareAndSet(0, Mailbox.RETIRED_COUNT)) {
+                        mailboxes.remove(mailbox.key, mailbox);
+                    }
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            mailbox.drainer = null;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 获取有排队或正在执行命令的邮箱数量
+     */
+    public int getActiveLaneCount() {
+        return mailboxes.size();
+    }
+
+    /**
+     * 关闭串行执行通道, 仅关闭由本通道创建的线程池
+     */
+    public void shutdown() {
+        if (ownsExecutor && executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private static final class Mailbox {
+        private static final int OFFERED = 0;
+        private static final int OWNED = 1;
+        private static final int FULL = 2;
+        private static final int RETIRED = 3;
+        private static final int RETIRED_COUNT = Integer.MIN_VALUE;
+
+        private final Object key;
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        /**
+         * 已放入但未完成的任务数, 邮箱移除后为RETIRED_COUNT
+         */
+        private final AtomicInteger count = new AtomicInteger();
+        /**
+         * 正在处理邮箱的线程
+         */
+        private volatile Thread drainer;
+
+        private Mailbox(Object key) {
+            this.key = key;
+        }
+
+        private int offer(Runnable task, int maxQueued) {
+            while (true) {
+                int current = count.get();
+                if (current == RETIRED_COUNT) {
+                    return RETIRED;
+                }
+                if (current >= maxQueued) {
+                    return FULL;
+                }
+                if (count.compareAndSet(current, current + 1)) {
+                    queue.offer(task);
+                    return current == 0 ? OWNED : OFFERED;
+                }
+            }
+        }
+    }
+
+    private static final class Task<T> implements Runnable {
+        private final Supplier<T> supplier;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        /**
+         * 任务放入的邮箱
+         */
+        private Mailbox mailbox;
+
+        private Task(Supplier<T> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
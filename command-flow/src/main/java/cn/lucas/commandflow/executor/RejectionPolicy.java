@@ -0,0 +1,16 @@
+package cn.lucas.commandflow.executor;
+
+/**
+ * 异步命令队列已满时的拒绝策略
+ */
+public enum RejectionPolicy {
+    /**
+     * 立即返回错误结果
+     */
+    ABORT,
+
+    /**
+     * 在调用者线程中同步执行
+     */
+    CALLER_RUNS
+}
@@ -0,0 +1,103 @@
+package cn.lucas.commandflow.handler;
+
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 基于方法句柄的命令处理器
+ * <p>
+ * 注册时将命令方法绑定为预编译的调用器, 执行时不再经过反射
+ */
+public final class MethodCommandHandler implements CommandHandler {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, CommandContext.class);
+    private static final MethodHandle GET_ARGS;
+
+    static {
+        try {
+            GET_ARGS = MethodHandles.publicLookup().findVirtual(CommandContext.class, "getArgs",
+                    MethodType.methodType(String[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MethodHandle invoker;
+
+    private MethodCommandHandler(MethodHandle invoker) {
+        this.invoker = invoker;
+    }
+
+    /**
+     * 为命令方法创建处理器
+     *
+     * @param handler 命令处理器对象
+     * @param method  命令方法
+     * @return 绑定后的命令处理器
+     * @throws IllegalArgumentException 方法参数不受支持时抛出
+     */
+    public static MethodCommandHandler create(Object handler, Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length > 1
+                || (parameterTypes.length == 1
+                && !parameterTypes[0].isAssignableFrom(CommandContext.class)
+                && !parameterTypes[0].isAssignableFrom(String[].class))) {
+            throw new IllegalArgumentException("命令方法参数不匹配: " + method);
+        }
+
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(handler);
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("无法访问命令方法: " + method, e);
+        }
+
+        if (parameterTypes.length == 0) {
+            handle = MethodHandles.dropArguments(handle, 0, CommandContext.class);
+        } else if (parameterTypes[0].isAssignableFrom(CommandContext.class)) {
+            handle = handle.asType(handle.type().changeParameterType(0, CommandContext.class));
+        } else {
+            handle = MethodHandles.filterArguments(
+                    handle.asType(handle.type().changeParameterType(0, String[].class)), 0, GET_ARGS);
+        }
+
+        return new MethodCommandHandler(handle.asType(INVOKER_TYPE));
+    }
+
+    @Override
+    public CommandResult handle(CommandContext context) {
+        Object result;
+        try {
+            result = invoker.invokeExact(context);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return toResult(result);
+    }
+
+    /**
+     * 将命令方法的返回值转换为命令结果
+     */
+    public static CommandResult toResult(Object result) {
+        if (result instanceof CommandResult) {
+            return (CommandResult) result;
+        } else if (result instanceof String) {
+            return CommandResult.success((String) result);
+        } else if (result == null) {
+            return CommandResult.success();
+        } else {
+            return CommandResult.success("命令执行成功", result);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package cn.lucas.commandflow.handler;
+
+import cn.lucas.commandflow.annotation.Arg;
+import cn.lucas.commandflow.converter.ArgumentConverter;
+import cn.lucas.commandflow.converter.ArgumentConverters;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+
+/**
+ * 带类型化参数的命令处理器
+ * <p>
+ * 注册时为每个 {@link Arg} 参数确定转换器, 执行时逐个转换参数, 失败时直接返回语法错误而不调用命令方法
+ */
+public final class TypedCommandHandler implements CommandHandler {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final MethodHandle invoker;
+    private final Binding[] bindings;
+
+    private TypedCommandHandler(MethodHandle invoker, Binding[] bindings) {
+        this.invoker = invoker;
+        this.bindings = bindings;
+    }
+
+    /**
+     * 方法是否声明了类型化参数
+     */
+    public static boolean isTyped(Method method) {
+        for (Parameter parameter : method.getParameters()) {
+            if (parameter.isAnnotationPresent(Arg.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 为带类型化参数的命令方法创建处理器
+     *
+     * @throws IllegalArgumentException 参数类型没有对应的转换器或不受支持时抛出
+     */
+    public static TypedCommandHandler create(Object handler, Method method, ArgumentConverters converters) {
+        Parameter[] parameters = method.getParameters();
+        Binding[] bindings = new Binding[parameters.length];
+        int position = 0;
+
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            Arg arg = parameter.getAnnotation(Arg.class);
+            Class<?> type = parameter.getType();
+
+            if (arg != null) {
+                ArgumentConverter<?> converter = converters.find(type);
+                if (converter == null) {
+                    throw new IllegalArgumentException("参数 '" + arg.value() + "' 的类型 "
+                            + type.getName() + " 没有对应的转换器: " + method);
+                }
+                Object defaultValue = defaultValue(arg, type, converter, method);
+                bindings[i] = new Binding(arg.value(), position++, arg.required(), defaultValue, converter);
+            } else if (type.isAssignableFrom(CommandContext.class)) {
+                bindings[i] = Binding.CONTEXT;
+            } else {
+                throw new IllegalArgumentException("参数 '" + parameter.getName() + "' 缺少 @Arg 注解: " + method);
+            }
+        }
+
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(handler);
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("无法访问命令方法: " + method, e);
+        }
+
+        MethodHandle spreader = handle.asSpreader(Object[].class, parameters.length).asType(INVOKER_TYPE);
+        return new TypedCommandHandler(spreader, bindings);
+    }
+
+    private static Object defaultValue(Arg arg, Class<?> type, ArgumentConverter<?> converter, Method method) {
+        if (arg.required()) {
+            return null;
+        }
+        if (!arg.defaultValue().isEmpty()) {
+            Object value = converter.convert(arg.defaultValue(), null);
+            if (value == null) {
+                throw new IllegalArgumentException("参数 '" + arg.value() + "' 的默认值无效: " + method);
+            }
+            return value;
+        }
+        return type.isPrimitive() ? zero(type) : null;
+    }
+
+    private static Object zero(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0F;
+        }
+        return 0D;
+    }
+
+    @Override
+    public CommandResult handle(CommandContext context) {
+        Object[] values = new Object[bindings.length];
+        for (int i = 0; i < bindings.length; i++) {
+            Binding binding = bindings[i];
+            if (binding == Binding.CONTEXT) {
+                values[i] = context;
+                continue;
+            }
+
+            String input = context.getArg(binding.position);
+            if (input == null) {
+                if (binding.required) {
+                    return CommandResult.syntaxError("缺少参数: <" + binding.name + ">");
+                }
+                values[i] = binding.defaultValue;
+                continue;
+            }
+
+            Object value = binding.converter.convert(input, context);
+            if (value == null) {
+                return CommandResult.syntaxError("参数 <" + binding.name + "> 无效: " + input);
+            }
+            values[i] = value;
+        }
+
+        Object result;
+        try {
+            result = invoker.invokeExact(values);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return MethodCommandHandler.toResult(result);
+    }
+
+    /**
+     * 单个参数的绑定信息
+     */
+    private static final class Binding {
+        static final Binding CONTEXT = new Binding(null, -1, false, null, null);
+
+        final String name;
+        final int position;
+        final boolean required;
+        final Object defaultValue;
+        final ArgumentConverter<?> converter;
+
+        Binding(String name, int position, boolean required, Object defaultValue, ArgumentConverter<?> converter) {
+            this.name = name;
+            this.position = position;
+            this.required = required;
+            this.defaultValue = defaultValue;
+            this.converter = converter;
+        }
+    }
+}
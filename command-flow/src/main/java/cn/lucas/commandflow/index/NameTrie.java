@@ -0,0 +1,241 @@
+package cn.lucas.commandflow.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 名称前缀树, 每个名称关联一个值
+ * <p>
+ * 构建完成后不可变, 可以在多个线程间共享. 子节点按字符排序, 按前缀列出名称时结果自然按字典序排列.
+ * 查找相近名称时沿前缀树逐字符计算编辑距离的动态规划行, 公共前缀只计算一次,
+ * 行中最小值超出允许的距离时整棵子树被跳过.
+ *
+ * @param <V> 名称关联的值的类型
+ */
+public final class NameTrie<V> {
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+    private final Node<V> root;
+    private final int size;
+    private final int maxLength;
+
+    private NameTrie(Node<V> root, int size, int maxLength) {
+        this.root = root;
+        this.size = size;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * 构建前缀树
+     *
+     * @param entries 名称及其关联的值
+     */
+    public static <V> NameTrie<V> build(Map<String, V> entries) {
+        String[] sorted = entries.keySet().toArray(new String[0]);
+        Arrays.sort(sorted);
+        int maxLength = 0;
+        for (String name : sorted) {
+            maxLength = Math.max(maxLength, name.length());
+        }
+        return new NameTrie<>(buildNode(sorted, entries, 0, sorted.length, 0), sorted.length, maxLength);
+    }
+
+    /**
+     * 由按字典序排列的名称区间构建节点, 区间内的名称在depth之前的前缀相同
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V> buildNode(String[] names, Map<String, V> entries, int from, int to, int depth) {
+        Node<V> node = new Node<>();
+        if (from < to && names[from].length() == depth) {
+            node.name = names[from];
+            node.value = entries.get(names[from]);
+            from++;
+        }
+
+        int childCount = 0;
+        for (int i = from; i < to; i++) {
+            if (i == from || names[i].charAt(depth) != names[i - 1].charAt(depth)) {
+                childCount++;
+            }
+        }
+        if (childCount == 0) {
+            return node;
+        }
+
+        node.labels = new char[childCount];
+        node.children = (Node<V>[]) new Node<?>[childCount];
+        int child = 0;
+        int start = from;
+        for (int i = from + 1; i <= to; i++) {
+            if (i == to || names[i].charAt(depth) != names[start].charAt(depth)) {
+                node.labels[child] = names[start].charAt(depth);
+                node.children[child++] = buildNode(names, entries, start, i, depth + 1);
+                start = i;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * 查找与query编辑距离不超过maxDistance的名称
+     *
+     * @param limit 最多返回的个数
+     * @return 按编辑距离和字典序排序的结果
+     */
+    public List<String> search(String query, int maxDistance, int limit) {
+        List<Match> matches = new ArrayList<>();
+        int columns = query.length() + 1;
+        int[][] rows = new int[maxLength + 1][columns];
+        for (int j = 0; j < columns; j++) {
+            rows[0][j] = Math.min(j, maxDistance + 1);
+        }
+        if (root.name != null && rows[0][query.length()] <= maxDistance) {
+            matches.add(new Match(root.name, rows[0][query.length()]));
+        }
+        // 空树只有根节点, rows只有一行
+        if (root.labels.length > 0) {
+            search(root, query, maxDistance, rows, 1, matches);
+        }
+
+        matches.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance)
+                : a.name.compareTo(b.name));
+        List<String> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(matches.get(i).name);
+        }
+        return result;
+    }
+
+    private static void search(Node<?> node, String query, int maxDistance, int[][] rows, int depth,
+                               List<Match> matches) {
+        int[] previous = rows[depth - 1];
+        int[] row = rows[depth];
+        int columns = previous.length;
+        // 只有 |i - j| <= maxDistance 的单元格可能不超过maxDistance, 其余单元格记为maxDistance + 1
+        int outside = maxDistance + 1;
+        int from = Math.max(1, depth - maxDistance);
+        int to = Math.min(columns - 1, depth + maxDistance);
+        for (int c = 0; c < node.labels.length; c++) {
+            char label = node.labels[c];
+            row[from - 1] = Math.min(depth, outside);
+            int rowMin = row[from - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = query.charAt(j - 1) == label ? 0 : 1;
+                int value = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                value = Math.min(value, outside);
+                row[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (to + 1 < columns) {
+                row[to + 1] = outside;
+            }
+
+            Node<?> child = node.children[c];
+            if (child.name != null && to == columns - 1 && row[columns - 1] <= maxDistance) {
+                matches.add(new Match(child.name, row[columns - 1]));
+            }
+            // 行中最小值只会随深度增加, 超出范围时子树中不可能有结果
+            if (rowMin <= maxDistance && child.labels.length > 0) {
+                search(child, query, maxDistance, rows, depth + 1, matches);
+            }
+        }
+    }
+
+    /**
+     * 查找前缀对应的位置
+     *
+     * @return 没有以该前缀开头的名称时返回null
+     */
+    public Position<V> find(String prefix) {
+        return find(new Position<>(root), prefix);
+    }
+
+    /**
+     * 从已知位置继续向下查找, 用于在上一次查找的基础上追加输入
+     *
+     * @param from   之前返回的位置, 必须来自同一棵前缀树
+     * @param suffix 追加的字符
+     * @return 没有以该前缀开头的名称时返回null
+     */
+    public Position<V> find(Position<V> from, String suffix) {
+        Node<V> node = from.node;
+        for (int i = 0; i < suffix.length(); i++) {
+            int index = Arrays.binarySearch(node.labels, suffix.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+        }
+        return node == from.node ? from : new Position<>(node);
+    }
+
+    /**
+     * 按字典序列出位置下的名称
+     *
+     * @param filter 只列出值满足条件的名称
+     * @param limit  最多返回的个数
+     */
+    public List<String> collect(Position<V> position, Predicate<? super V> filter, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        if (limit > 0) {
+            collect(position.node, filter, limit, result);
+        }
+        return result;
+    }
+
+    private static <V> boolean collect(Node<V> node, Predicate<? super V> filter, int limit, List<String> result) {
+        if (node.name != null && filter.test(node.value)) {
+            result.add(node.name);
+            if (result.size() >= limit) {
+                return true;
+            }
+        }
+        for (Node<V> child : node.children) {
+            if (collect(child, filter, limit, result)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 前缀树中的位置, 对应一个已输入的前缀
+     */
+    public static final class Position<V> {
+        private final Node<V> node;
+
+        private Position(Node<V> node) {
+            this.node = node;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final class Node<V> {
+        /**
+         * 以当前节点结尾的名称, 不是完整名称时为null
+         */
+        private String name;
+        private V value;
+        private char[] labels = NO_LABELS;
+        private Node<V>[] children = (Node<V>[]) NO_CHILDREN;
+    }
+
+    private static final class Match {
+        private final String name;
+        private final int distance;
+
+        private Match(String name, int distance) {
+            this.name = name;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package cn.lucas.commandflow.interceptor;
+
+import cn.lucas.commandflow.handler.CommandHandler;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandInfo;
+import cn.lucas.commandflow.model.CommandResult;
+
+/**
+ * 命令拦截器
+ * <p>
+ * 拦截器包裹命令方法的调用, 可以在调用前后执行逻辑、改写参数或直接返回结果而不调用命令方法.
+ * 每个命令的拦截器在注册或拦截器变更时链接为固定的调用链, 执行时不再匹配.
+ */
+@FunctionalInterface
+public interface CommandInterceptor {
+    /**
+     * 拦截命令调用
+     *
+     * @param command 被调用的命令
+     * @param context 命令上下文, 可以通过 {@link CommandContext#withArgs(String...)} 改写参数后传给next
+     * @param next    调用链中的下一个拦截器或命令方法
+     * @return 命令执行结果
+     */
+    CommandResult intercept(CommandInfo command, CommandContext context, CommandHandler next);
+
+    /**
+     * 创建在命令方法之前执行的拦截器
+     */
+    static CommandInterceptor before(Before hook) {
+        return (command, context, next) -> {
+            CommandResult result = hook.before(command, context);
+            return result != null ? result : next.handle(context);
+        };
+    }
+
+    /**
+     * 创建在命令方法之后执行的拦截器
+     */
+    static CommandInterceptor after(After hook) {
+        return (command, context, next) -> hook.after(command, context, next.handle(context));
+    }
+
+    /**
+     * 命令方法之前执行的逻辑
+     */
+    @FunctionalInterface
+    interface Before {
+        /**
+         * @return 返回null时继续调用, 否则直接以返回值作为结果
+         */
+        CommandResult before(CommandInfo command, CommandContext context);
+    }
+
+    /**
+     * 命令方法之后执行的逻辑
+     */
+    @FunctionalInterface
+    interface After {
+        /**
+         * @param result 命令方法或后续拦截器的结果
+         * @return 最终结果, 通常直接返回result
+         */
+        CommandResult after(CommandInfo command, CommandContext context, CommandResult result);
+    }
+}
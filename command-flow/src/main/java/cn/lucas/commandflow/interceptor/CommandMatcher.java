@@ -0,0 +1,47 @@
+package cn.lucas.commandflow.interceptor;
+
+import cn.lucas.commandflow.model.CommandInfo;
+
+import java.util.regex.Pattern;
+
+/**
+ * 拦截器的命令匹配条件, 只在链接调用链时求值
+ */
+@FunctionalInterface
+public interface CommandMatcher {
+    /**
+     * @param path    小写的命令路径, 例如 "todo add"
+     * @param command 命令信息
+     */
+    boolean matches(String path, CommandInfo command);
+
+    /**
+     * 匹配所有命令
+     */
+    static CommandMatcher all() {
+        return (path, command) -> true;
+    }
+
+    /**
+     * 按命令分类匹配, 不区分大小写; 未设置分类的子命令按继承自父命令的分类匹配
+     */
+    static CommandMatcher category(String category) {
+        return (path, command) -> category.equalsIgnoreCase(command.getCategory());
+    }
+
+    /**
+     * 按命令路径匹配, 正则表达式需匹配完整路径, 例如 "todo .*" 匹配todo的所有子命令
+     */
+    static CommandMatcher path(String regex) {
+        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        return (path, command) -> pattern.matcher(path).matches();
+    }
+
+    default CommandMatcher and(CommandMatcher other) {
+        return (path, command) -> matches(path, command) && other.matches(path, command);
+    }
+
+    default CommandMatcher or(CommandMatcher other) {
+        return (path, command) -> matches(path, command) || other.matches(path, command);
+    }
+}
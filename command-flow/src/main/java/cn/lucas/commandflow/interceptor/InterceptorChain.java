@@ -0,0 +1,47 @@
+package cn.lucas.commandflow.interceptor;
+
+import cn.lucas.commandflow.handler.CommandHandler;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandInfo;
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.util.List;
+
+/**
+ * 拦截器调用链
+ */
+public final class InterceptorChain {
+
+    private InterceptorChain() {
+    }
+
+    /**
+     * 将拦截器依次链接到命令调用器之前, 第一个拦截器在最外层
+     *
+     * @return 没有拦截器时直接返回invoker
+     */
+    public static CommandHandler link(CommandInfo command, List<CommandInterceptor> interceptors, CommandHandler invoker) {
+        CommandHandler next = invoker;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            next = new Link(command, interceptors.get(i), next);
+        }
+        return next;
+    }
+
+    private static final class Link implements CommandHandler {
+        private final CommandInfo command;
+        private final CommandInterceptor interceptor;
+        private final CommandHandler next;
+
+        private Link(CommandInfo command, CommandInterceptor interceptor, CommandHandler next) {
+            this.command = command;
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        public CommandResult handle(CommandContext context) {
+            return interceptor.intercept(command, context, next);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package cn.lucas.commandflow.journal;
+
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的只追加命令日志
+ * <p>
+ * 执行线程只把记录放入有界队列, 由单独的写入线程批量编码到内存映射的段文件中 (组提交),
+ * 段文件写满后滚动到下一个段. 开启 {@code forceOnCommit} 时每批记录写入后强制刷盘.
+ * 已有日志目录重新打开时从新的段文件开始追加.
+ *
+ * <pre>{@code
+ * CommandJournal journal = new CommandJournal.Builder(Paths.get("journal")).open();
+ * commandFlow.setJournal(journal);
+ * }</pre>
+ */
+public class CommandJournal implements Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+    private static final int MAX_BATCH_SIZE = 4096;
+    /**
+     * 通知写入线程关闭的标记记录
+     */
+    private static final JournalRecord CLOSE = new JournalRecord(0, null, "", "", CommandResult.Status.SUCCESS);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceOnCommit;
+    private final Function<Object, String> senderId;
+    private final BlockingQueue<JournalRecord> queue;
+    private final Thread writer;
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Object commitLock = new Object();
+    /**
+     * 追加持有读锁, 关闭持有写锁, 保证关闭标记之后不会再有记录入队
+     */
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+    private final CRC32 crc = new CRC32();
+    /**
+     * 已写入或丢弃的记录数, 由commitLock保护
+     */
+    private long committed;
+    private volatile boolean closed;
+
+    // 以下字段仅由写入线程访问
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+
+    private CommandJournal(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.forceOnCommit = builder.forceOnCommit;
+        this.senderId = builder.senderId;
+        this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+
+        Files.createDirectories(directory);
+        this.segmentIndex = lastSegmentIndex(directory);
+        openNextSegment();
+
+        this.writer = new Thread(this::writeLoop, "CommandFlow-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 追加一条命令记录, 队列已满时阻塞等待写入线程
+     *
+     * @param timestamp   执行时间, 毫秒时间戳
+     * @param sender      发送者
+     * @param commandLine 原始命令行
+     * @param command     解析出的命令路径
+     * @param status      执行结果状态
+     */
+    public void append(long timestamp, Object sender, String commandLine, String command, CommandResult.Status status) {
+        append(new JournalRecord(timestamp, sender != null ? senderId.apply(sender) : null, commandLine, command, status));
+    }
+
+    /**
+     * 追加一条命令记录, 队列已满时阻塞等待写入线程; 关闭后追加的记录计为丢弃
+     */
+    public void append(JournalRecord record) {
+        gate.readLock().lock();
+        try {
+            if (closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+            appended.incrementAndGet();
+            while (!queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    // 写入线程已异常退出, 不再等待
+                    dropped.incrementAndGet();
+                    commit(1);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+            commit(1);
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    /**
+     * 等待调用前追加的记录全部写入
+     */
+    public void flush() {
+        long target = appended.get();
+        synchronized (commitLock) {
+            while (committed < target && writer.isAlive()) {
+                try {
+                    commitLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入剩余记录后关闭日志
+     */
+    @Override
+    public void close() {
+        // 等待已通过检查的追加完成入队, 之后的追加都会看到closed
+        gate.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            gate.writeLock().unlock();
+        }
+        try {
+            while (!queue.offer(CLOSE, 100, TimeUnit.MILLISECONDS) && writer.isAlive()) {
+                // 队列已满, 等待写入线程腾出空间
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) {
+            dropRemaining();
+        }
+    }
+
+    /**
+     * 已追加的记录数
+     */
+    public long getAppendedCount() {
+        return appended.get();
+    }
+
+    /**
+     * 因关闭、中断或写入失败而丢弃的记录数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 等待写入的记录数
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void writeLoop() {
+        List<JournalRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+            int count = 0;
+            for (JournalRecord record : batch) {
+                if (record == CLOSE) {
+                    running = false;
+                    continue;
+                }
+                if (!write(record)) {
+                    dropped.incrementAndGet();
+                }
+                count++;
+            }
+            if (forceOnCommit && segment != null) {
+                segment.force();
+            }
+            batch.clear();
+            commit(count);
+        }
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    /**
+     * 写入线程异常退出时队列中可能留有记录, 计为丢弃
+     */
+    private void dropRemaining() {
+        List<JournalRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        int count = 0;
+        for (JournalRecord record : remaining) {
+            if (record != CLOSE) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            dropped.addAndGet(count);
+            commit(count);
+        }
+    }
+
+    private void commit(int count) {
+        synchronized (commitLock) {
+            committed += count;
+            commitLock.notifyAll();
+        }
+    }
+
+    /**
+     * 编码一条记录, 当前段空间不足时滚动到新的段
+     */
+    private boolean write(JournalRecord record) {
+        byte[] sender = JournalFormat.utf8(record.getSenderId());
+        byte[] commandLine = JournalFormat.utf8(record.getCommandLine());
+        byte[] command = JournalFormat.utf8(record.getCommand());
+        int length = 8 + 1
+                + JournalFormat.sizeOf(sender, true)
+                + JournalFormat.sizeOf(commandLine, false)
+                + JournalFormat.sizeOf(command, false);
+        int size = JournalFormat.RECORD_HEADER_SIZE + length;
+        if (size > segmentSize - JournalFormat.HEADER_SIZE) {
+            return false;
+        }
+
+        if (segment == null || segment.remaining() < size) {
+            try {
+                openNextSegment();
+            } catch (IOException e) {
+                e.printStackTrace();
+                segment = null;
+                return false;
+            }
+        }
+
+        int start = segment.position();
+        segment.putInt(length);
+        segment.putInt(0);
+        segment.putLong(record.getTimestamp());
+        segment.put((byte) record.getStatus().ordinal());
+        JournalFormat.putString(segment, sender, true);
+        JournalFormat.putString(segment, commandLine, false);
+        JournalFormat.putString(segment, command, false);
+        segment.putInt(start + 4, JournalFormat.checksum(crc, segment, start + JournalFormat.RECORD_HEADER_SIZE, length));
+        return true;
+    }
+
+    private void openNextSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        Path path = directory.resolve(JournalFormat.segmentName(++segmentIndex));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.putInt(JournalFormat.MAGIC);
+        segment.putInt(JournalFormat.VERSION);
+    }
+
+    private static long lastSegmentIndex(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(JournalFormat.SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - JournalFormat.SEGMENT_SUFFIX.length())))
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    public static class Builder {
+        private final Path directory;
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private boolean forceOnCommit = false;
+        private Function<Object, String> senderId = String::valueOf;
+
+        /**
+         * @param directory 日志目录, 不存在时自动创建
+         */
+        public Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * 设置段文件大小
+         */
+        public Builder segmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * 设置等待写入的最大记录数
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * 每批记录写入后是否强制刷盘
+         */
+        public Builder forceOnCommit(boolean forceOnCommit) {
+            this.forceOnCommit = forceOnCommit;
+            return this;
+        }
+
+        /**
+         * 设置发送者标识的生成方法, 默认使用 {@link String#valueOf(Object)}
+         */
+        public Builder senderId(Function<Object, String> senderId) {
+            this.senderId = senderId;
+            return this;
+        }
+
+        public CommandJournal open() throws IOException {
+            if (segmentSize <= JournalFormat.HEADER_SIZE || queueCapacity <= 0) {
+                throw new IllegalArgumentException("segmentSize或queueCapacity无效");
+            }
+            return new CommandJournal(this);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package cn.lucas.commandflow.journal;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * 日志段文件格式
+ * <p>
+ * 段文件以8字节文件头 (魔数、版本) 开始, 之后依次为记录:
+ * <pre>
+ * int    数据长度
+ * int    数据的CRC32
+ * long   毫秒时间戳
+ * byte   结果状态序号
+ * string 发送者标识 (长度+1, 0表示null)
+ * string 命令行
+ * string 命令路径
+ * </pre>
+ * 字符串以变长整数长度加UTF-8字节表示. 段文件预先分配, 长度为0的记录表示段结束.
+ */
+final class JournalFormat {
+    static final int MAGIC = 0x434A4E4C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private JournalFormat() {
+    }
+
+    static String segmentName(long index) {
+        return String.format("%010d", index) + SEGMENT_SUFFIX;
+    }
+
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 字符串编码后的长度, null与空字符串区分
+     */
+    static int sizeOf(byte[] bytes, boolean nullable) {
+        int length = bytes == null ? 0 : bytes.length;
+        return varIntSize(nullable ? (bytes == null ? 0 : length + 1) : length) + length;
+    }
+
+    static void putString(ByteBuffer buffer, byte[] bytes, boolean nullable) {
+        if (nullable) {
+            putVarInt(buffer, bytes == null ? 0 : bytes.length + 1);
+            if (bytes == null) {
+                return;
+            }
+        } else {
+            putVarInt(buffer, bytes.length);
+        }
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer, boolean nullable) {
+        int length = getVarInt(buffer);
+        if (nullable) {
+            if (length == 0) {
+                return null;
+            }
+            length--;
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        ((Buffer) buffer).position(buffer.position() + length);
+        return value;
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * 计算缓冲区中 [offset, offset + length) 的CRC32
+     */
+    static int checksum(CRC32 crc, ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        ((Buffer) view).limit(offset + length);
+        ((Buffer) view).position(offset);
+        crc.reset();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
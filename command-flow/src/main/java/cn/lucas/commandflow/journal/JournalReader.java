@@ -0,0 +1,132 @@
+package cn.lucas.commandflow.journal;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 命令日志读取器
+ * <p>
+ * 按段文件顺序以内存映射方式读取记录, 时间范围之外的记录只读取时间戳后直接跳过.
+ * 遇到校验失败或未写完的记录时停止读取当前段, 继续读取下一个段.
+ */
+public class JournalReader {
+    private static final CommandResult.Status[] STATUSES = CommandResult.Status.values();
+
+    private final Path directory;
+
+    /**
+     * @param directory 日志目录
+     */
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 遍历时间范围内的记录
+     *
+     * @param from     起始时间 (包含), 毫秒时间戳
+     * @param to       结束时间 (包含), 毫秒时间戳
+     * @param consumer 记录处理器
+     */
+    public void forEach(long from, long to, Consumer<JournalRecord> consumer) throws IOException {
+        CRC32 crc = new CRC32();
+        for (Path segment : segments()) {
+            read(segment, from, to, crc, consumer);
+        }
+    }
+
+    /**
+     * 读取时间范围内的全部记录
+     */
+    public List<JournalRecord> read(long from, long to) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        forEach(from, to, records::add);
+        return records;
+    }
+
+    /**
+     * 按原顺序重新执行时间范围内执行成功的命令
+     *
+     * @param commandFlow    执行命令的实例
+     * @param from           起始时间 (包含), 毫秒时间戳
+     * @param to             结束时间 (包含), 毫秒时间戳
+     * @param senderResolver 根据记录还原发送者, 返回null表示以无发送者身份执行
+     * @return 重新执行的命令数量
+     */
+    public long replay(CommandFlow commandFlow, long from, long to,
+                       Function<JournalRecord, Object> senderResolver) throws IOException {
+        long[] count = new long[1];
+        forEach(from, to, record -> {
+            if (record.getStatus() == CommandResult.Status.SUCCESS) {
+                commandFlow.execute(record.getCommandLine(), senderResolver.apply(record));
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(JournalFormat.SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void read(Path path, long from, long to, CRC32 crc, Consumer<JournalRecord> consumer)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < JournalFormat.HEADER_SIZE
+                || buffer.getInt() != JournalFormat.MAGIC
+                || buffer.getInt() != JournalFormat.VERSION) {
+            return;
+        }
+
+        while (buffer.remaining() >= JournalFormat.RECORD_HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            int start = buffer.position();
+            if (length <= 0 || length > buffer.remaining()) {
+                return;
+            }
+
+            // 只校验需要解码的记录
+            long timestamp = buffer.getLong(start);
+            if (timestamp >= from && timestamp <= to) {
+                if (JournalFormat.checksum(crc, buffer, start, length) != checksum) {
+                    return;
+                }
+                ((Buffer) buffer).position(start + 8);
+                consumer.accept(decode(buffer, timestamp));
+            }
+            ((Buffer) buffer).position(start + length);
+        }
+    }
+
+    private static JournalRecord decode(ByteBuffer buffer, long timestamp) {
+        CommandResult.Status status = STATUSES[buffer.get()];
+        String sender = JournalFormat.getString(buffer, true);
+        String commandLine = JournalFormat.getString(buffer, false);
+        String command = JournalFormat.getString(buffer, false);
+        return new JournalRecord(timestamp, sender, commandLine, command, status);
+    }
+}
@@ -0,0 +1,61 @@
+package cn.lucas.commandflow.journal;
+
+import cn.lucas.commandflow.model.CommandResult;
+
+/**
+ * 命令日志记录
+ */
+public final class JournalRecord {
+    private final long timestamp;
+    private final String senderId;
+    private final String commandLine;
+    private final String command;
+    private final CommandResult.Status status;
+
+    /**
+     * @param timestamp   执行时间, 毫秒时间戳
+     * @param senderId    发送者标识, 没有发送者时为null
+     * @param commandLine 原始命令行
+     * @param command     解析出的命令路径, 例如 "todo add", 未知命令时为空字符串
+     * @param status      执行结果状态
+     */
+    public JournalRecord(long timestamp, String senderId, String commandLine, String command,
+                         CommandResult.Status status) {
+        this.timestamp = timestamp;
+        this.senderId = senderId;
+        this.commandLine = commandLine;
+        this.command = command;
+        this.status = status;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSenderId() {
+        return senderId;
+    }
+
+    public String getCommandLine() {
+        return commandLine;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public CommandResult.Status getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{" +
+                "timestamp=" + timestamp +
+                ", senderId='" + senderId + '\'' +
+                ", commandLine='" + commandLine + '\'' +
+                ", command='" + command + '\'' +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package cn.lucas.commandflow.limit;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并发隔离舱
+ * <p>
+ * 限制同一分类中同时执行的命令数量, 达到上限时立即拒绝而不是排队等待,
+ * 使某个分类中大量缓慢的命令无法占满执行线程而影响其他分类.
+ */
+public class Bulkhead {
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maxConcurrent 最大并发执行数
+     */
+    public Bulkhead(int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent必须大于0");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * 尝试进入隔离舱, 成功后必须调用 {@link #release()}
+     */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * 获取正在执行的命令数量
+     */
+    public int getActiveCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
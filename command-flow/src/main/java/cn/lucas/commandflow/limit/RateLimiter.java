@@ -0,0 +1,66 @@
+package cn.lucas.commandflow.limit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * <p>
+ * 以通用信元速率算法 (GCRA) 实现: 只保存下一个令牌的理论到达时间, 获取令牌时通过CAS推进该时间,
+ * 与按固定速率补充、容量为burst的令牌桶等价.
+ */
+public final class RateLimiter {
+    /**
+     * 每个令牌的补充间隔, 纳秒
+     */
+    private final long interval;
+    /**
+     * 桶满时理论到达时间最多领先当前时间的纳秒数
+     */
+    private final long capacity;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param burst            令牌桶容量, 即允许的最大突发次数
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond和burst必须大于0");
+        }
+        this.interval = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.capacity = interval * burst;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试获取一个令牌
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param now 当前时间, {@link System#nanoTime()}
+     */
+    public boolean tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = (current - now > 0 ? current : now) + interval;
+            if (next - now > capacity) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 令牌桶是否已补满, 已补满的令牌桶丢弃后重新创建不会改变限流结果
+     */
+    public boolean isIdle(long now) {
+        return theoreticalArrival.get() - now <= 0;
+    }
+}
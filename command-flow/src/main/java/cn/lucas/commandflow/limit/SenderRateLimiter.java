@@ -0,0 +1,80 @@
+package cn.lucas.commandflow.limit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按发送者限流, 每个发送者拥有独立的令牌桶
+ * <p>
+ * 已补满的令牌桶与新建的令牌桶等价, 因此发送者数量超过阈值时清理所有已补满的令牌桶,
+ * 内存占用只与近期活跃的发送者数量有关. 发送者按 equals/hashCode 区分.
+ */
+public class SenderRateLimiter {
+    private static final int MIN_SWEEP_THRESHOLD = 1024;
+    /**
+     * 每获取多少次令牌检查一次是否需要清理
+     */
+    private static final int SWEEP_CHECK_INTERVAL = 256;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final Map<Object, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private final AtomicInteger acquisitions = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile int sweepThreshold = MIN_SWEEP_THRESHOLD;
+
+    /**
+     * @param permitsPerSecond 每个发送者每秒允许的执行次数
+     * @param burst            每个发送者允许的最大突发次数
+     */
+    public SenderRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond和burst必须大于0");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+    }
+
+    /**
+     * 尝试为发送者获取一个令牌
+     */
+    public boolean tryAcquire(Object sender) {
+        long now = System.nanoTime();
+        RateLimiter limiter = limiters.get(sender);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(sender, k -> new RateLimiter(permitsPerSecond, burst));
+        }
+        boolean acquired = limiter.tryAcquire(now);
+
+        if ((acquisitions.incrementAndGet() & (SWEEP_CHECK_INTERVAL - 1)) == 0 && limiters.size() >= sweepThreshold) {
+            sweep(now);
+        }
+        return acquired;
+    }
+
+    /**
+     * 当前保存的令牌桶数量
+     */
+    public int size() {
+        return limiters.size();
+    }
+
+    /**
+     * 清理已补满的令牌桶, 同一时间只有一个线程执行清理
+     * <p>
+     * 清理后阈值调整为剩余数量的两倍, 活跃发送者较多时不会频繁清理
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            limiters.values().removeIf(limiter -> limiter.isIdle(now));
+            sweepThreshold = Math.max(MIN_SWEEP_THRESHOLD, limiters.size() * 2);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package cn.lucas.commandflow.model;
+
+import cn.lucas.commandflow.pipeline.Pipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 命令执行上下文
+ */
+public class CommandContext {
+    private final CommandLine line;
+    /**
+     * 第一个参数在分词结果中的位置
+     */
+    private final int argOffset;
+    private String[] args;
+    private final Map<String, Object> attributes;
+    /**
+     * 取消状态, 与偏移或改写参数后的上下文共享
+     */
+    private final Cancellation cancellation;
+    /**
+     * 管道中上游命令的输出, 不在管道中时为null
+     */
+    private Pipe input;
+    /**
+     * 传给管道中下游命令的输出, 不在管道中时为null
+     */
+    private Pipe output;
+    private Object sender;
+    private CommandResult result;
+
+    public CommandContext(String rawCommand) {
+        this.line = CommandLine.parse(rawCommand.trim());
+        this.argOffset = 1;
+        this.attributes = new HashMap<>();
+        this.cancellation = new Cancellation();
+        this.result = CommandResult.success();
+    }
+
+    private CommandContext(CommandContext parent, int argOffset) {
+        this(parent, parent.line, argOffset);
+    }
+
+    private CommandContext(CommandContext parent, CommandLine line, int argOffset) {
+        this.line = line;
+        this.argOffset = argOffset;
+        this.attributes = parent.attributes;
+        this.cancellation = parent.cancellation;
+        this.input = parent.input;
+        this.output = parent.output;
+        this.sender = parent.sender;
+        this.result = parent.result;
+    }
+
+    /**
+     * 创建移除前count个参数的上下文
+     * <p>
+     * 新上下文与当前上下文共享分词结果、发送者和属性, 不会重新解析命令行
+     *
+     * @param count 移除的参数数量
+     * @return 偏移后的上下文
+     */
+    public CommandContext shift(int count) {
+        if (count <= 0) {
+            return this;
+        }
+        return new CommandContext(this, Math.min(argOffset + count, Math.max(line.size(), 1)));
+    }
+
+    /**
+     * 创建替换了参数的上下文, 用于拦截器改写参数
+     * <p>
+     * 新上下文与当前上下文共享原始命令行、发送者和属性
+     *
+     * @param args 新的参数
+     */
+    public CommandContext withArgs(String... args) {
+        String[] tokens = new String[argOffset + args.length];
+        for (int i = 0; i < argOffset; i++) {
+            tokens[i] = line.token(i);
+        }
+        System.arraycopy(args, 0, tokens, argOffset, args.length);
+        return new CommandContext(this, CommandLine.of(line.getRaw(), tokens), argOffset);
+    }
+
+    public String getRawCommand() {
+        return line.getRaw();
+    }
+
+    public String getCommandName() {
+        String commandName = line.token(0);
+        return commandName != null ? commandName : "";
+    }
+
+    public String[] getArgs() {
+        if (args == null) {
+            args = line.tokens(argOffset);
+        }
+        return args;
+    }
+
+    /**
+     * 获取参数数量, 不会生成参数字符串
+     */
+    public int getArgCount() {
+        return Math.max(0, line.size() - argOffset);
+    }
+
+    public String getArg(int index) {
+        return index >= 0 ? line.token(index + argOffset) : null;
+    }
+
+    public String getArg(int index, String defaultValue) {
+        String arg = getArg(index);
+        return arg != null ? arg : defaultValue;
+    }
+
+    public int getArgAsInt(int index, int defaultValue) {
+        try {
+            return Integer.parseInt(getArg(index));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    public double getArgAsDouble(int index, double defaultValue) {
+        try {
+            return Double.parseDouble(getArg(index));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    public boolean getArgAsBoolean(int index, boolean defaultValue) {
+        String arg = getArg(index);
+        if (arg == null) return defaultValue;
+        return "true".equalsIgnoreCase(arg) || "yes".equalsIgnoreCase(arg) || "1".equals(arg);
+    }
+
+    public void setAttribute(String key, Object value) {
+        attributes.put(key, value);
+    }
+
+    public Object getAttribute(String key) {
+        return attributes.get(key);
+    }
+
+    public <T> T getAttribute(String key, Class<T> type) {
+        Object value = attributes.get(key);
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        return null;
+    }
+
+    /**
+     * 取消命令, 已注册的取消回调在当前线程中依次执行
+     * <p>
+     * 取消是协作式的, 命令方法需通过 {@link #isCancelled()} 或取消回调自行结束
+     */
+    public void cancel() {
+        cancellation.cancel();
+    }
+
+    /**
+     * 命令是否已被取消, 例如执行超时
+     */
+    public boolean isCancelled() {
+        return cancellation.cancelled;
+    }
+
+    /**
+     * 命令已被取消时抛出 {@link CancellationException}, 用于在循环或分段处理中检查取消
+     */
+    public void throwIfCancelled() {
+        if (cancellation.cancelled) {
+            throw new CancellationException("命令已取消");
+        }
+    }
+
+    /**
+     * 注册取消回调, 例如关闭阻塞中的连接; 命令已被取消时立即执行
+     */
+    public void onCancel(Runnable callback) {
+        cancellation.add(callback);
+    }
+
+    /**
+     * 连接管道, 在命令执行前由 CommandFlow 调用; 下游停止读取时取消当前命令
+     *
+     * @param input  上游命令的输出, 可以为null
+     * @param output 传给下游命令的输出, 可以为null
+     */
+    public void setPipes(Pipe input, Pipe output) {
+        this.input = input;
+        this.output = output;
+        if (output != null) {
+            output.onAbort(cancellation::cancel);
+        }
+    }
+
+    /**
+     * 是否有上游命令通过管道传入数据
+     */
+    public boolean hasInput() {
+        return input != null;
+    }
+
+    /**
+     * 获取上游命令传入的数据, 等待上游命令结束
+     *
+     * @return 上游通过 {@link #emit(Object)} 输出元素时为元素列表, 否则为上游结果的data; 没有上游命令时返回null
+     */
+    public Object getInput() {
+        return input != null ? input.collect() : null;
+    }
+
+    /**
+     * 逐个读取上游命令输出的元素, 上游仍在执行时边读取边处理
+     * <p>
+     * 上游没有输出元素时依次返回上游结果data中的元素, 集合、数组与 Stream 逐个返回
+     */
+    public Stream<Object> streamInput() {
+        if (input == null) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(input.iterator(), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * 是否有下游命令读取 {@link #emit(Object)} 输出的元素
+     */
+    public boolean hasOutput() {
+        return output != null;
+    }
+
+    /**
+     * 向管道中的下游命令输出一个元素, 下游读取较慢时等待
+     *
+     * @return 没有下游命令时返回false, 元素被丢弃
+     * @throws CancellationException 下游命令已结束或当前命令已取消
+     */
+    public boolean emit(Object element) {
+        if (output == null) {
+            return false;
+        }
+        throwIfCancelled();
+        output.write(element);
+        return true;
+    }
+
+    public Object getSender() {
+        return sender;
+    }
+
+    public void setSender(Object sender) {
+        this.sender = sender;
+    }
+
+    public CommandResult getResult() {
+        return result;
+    }
+
+    public void setResult(CommandResult result) {
+        this.result = result;
+    }
+
+    private static final class Cancellation {
+        private volatile boolean cancelled;
+        private List<Runnable> callbacks;
+
+        private void cancel() {
+            List<Runnable> pending;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                pending = callbacks;
+                callbacks = null;
+            }
+            if (pending != null) {
+                for (Runnable callback : pending) {
+                    try {
+                        callback.run();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        private void add(Runnable callback) {
+            synchronized (this) {
+                if (!cancelled) {
+                    if (callbacks == null) {
+                        callbacks = new ArrayList<>(2);
+                    }
+                    callbacks.add(callback);
+                    return;
+                }
+            }
+            callback.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CommandContext{" +
+                "commandName='" + getCommandName() + '\'' +
+                ", args=" + Arrays.toString(getArgs()) +
+                '}';
+    }
+} 
\ No newline at end of file
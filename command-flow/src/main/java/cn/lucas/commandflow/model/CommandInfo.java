@@ -0,0 +1,472 @@
+package cn.lucas.commandflow.model;
+
+import cn.lucas.commandflow.handler.CommandHandler;
+import cn.lucas.commandflow.index.NameTrie;
+import cn.lucas.commandflow.interceptor.CommandInterceptor;
+import cn.lucas.commandflow.interceptor.InterceptorChain;
+import cn.lucas.commandflow.limit.RateLimiter;
+import cn.lucas.commandflow.stats.CommandStats;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 命令信息类
+ * <p>
+ * 命令信息不可变, 添加子命令时返回新的实例, 可以在多个线程间安全共享
+ */
+public class CommandInfo {
+    private final String name;
+    private final String description;
+    private final List<String> aliases;
+    private final String permission;
+    private final String usage;
+    /**
+     * 由用法编译的参数模式, 用法中没有参数占位符时为null
+     */
+    private final UsageSchema usageSchema;
+    private final String category;
+    private final boolean enabled;
+    private final boolean parallel;
+    private final Object handler;
+    private final Method method;
+    private final CommandHandler invoker;
+    private final List<CommandInterceptor> interceptors;
+    /**
+     * 链接了拦截器的调用器, 没有拦截器时与invoker相同
+     */
+    private final CommandHandler dispatcher;
+    private final double rateLimit;
+    private final int rateBurst;
+    /**
+     * 命令的令牌桶, 未限流时为null
+     */
+    private final RateLimiter rateLimiter;
+    private final long cacheTtl;
+    private final boolean cachePerSender;
+    private final long timeout;
+    private final CommandStats stats;
+    private final List<CommandInfo> subCommands;
+    /**
+     * 子命令索引, 键为小写的子命令名称和别名
+     */
+    private final Map<String, CommandInfo> subCommandIndex;
+    /**
+     * 子命令名称和别名的前缀树, 首次补全时构建
+     */
+    private volatile NameTrie<CommandInfo> subCommandTrie;
+
+    public CommandInfo(String name, String description, List<String> aliases,
+                       String permission, String usage, String category,
+                       boolean enabled, boolean parallel, Object handler, Method method,
+                       CommandHandler invoker) {
+        this(new Builder()
+                .name(name)
+                .description(description)
+                .aliases(aliases.toArray(new String[0]))
+                .permission(permission)
+                .usage(usage)
+                .category(category)
+                .enabled(enabled)
+                .parallel(parallel)
+                .handler(handler)
+                .method(method)
+                .invoker(invoker));
+    }
+
+    private CommandInfo(Builder builder) {
+        this.name = builder.name;
+        this.description = builder.description;
+        this.aliases = builder.aliases;
+        this.permission = builder.permission;
+        this.usage = builder.usage;
+        this.usageSchema = UsageSchema.compile(builder.usage);
+        this.category = builder.category;
+        this.enabled = builder.enabled;
+        this.parallel = builder.parallel;
+        this.handler = builder.handler;
+        this.method = builder.method;
+        this.invoker = builder.invoker;
+        this.interceptors = builder.interceptors;
+        this.rateLimit = builder.rateLimit;
+        this.rateBurst = builder.rateBurst > 0 ? builder.rateBurst : Math.max(1, (int) Math.ceil(builder.rateLimit));
+        this.rateLimiter = rateLimit > 0 ? new RateLimiter(rateLimit, rateBurst) : null;
+        this.cacheTtl = builder.cacheTtl;
+        this.cachePerSender = builder.cachePerSender;
+        this.timeout = builder.timeout;
+        this.stats = new CommandStats();
+        this.subCommands = Collections.emptyList();
+        this.subCommandIndex = Collections.emptyMap();
+        this.dispatcher = InterceptorChain.link(this, interceptors, invoker);
+    }
+
+    private CommandInfo(CommandInfo source, List<CommandInfo> subCommands, boolean enabled) {
+        this(source, subCommands, enabled, source.interceptors);
+    }
+
+    private CommandInfo(CommandInfo source, List<CommandInfo> subCommands, boolean enabled,
+                        List<CommandInterceptor> interceptors) {
+        this.name = source.name;
+        this.description = source.description;
+        this.aliases = source.aliases;
+        this.permission = source.permission;
+        this.usage = source.usage;
+        this.usageSchema = source.usageSchema;
+        this.category = source.category;
+        this.enabled = enabled;
+        this.parallel = source.parallel;
+        this.handler = source.handler;
+        this.method = source.method;
+        this.invoker = source.invoker;
+        this.interceptors = interceptors;
+        this.rateLimit = source.rateLimit;
+        this.rateBurst = source.rateBurst;
+        this.rateLimiter = source.rateLimiter;
+        this.cacheTtl = source.cacheTtl;
+        this.cachePerSender = source.cachePerSender;
+        this.timeout = source.timeout;
+        this.stats = source.stats;
+        this.subCommands = Collections.unmodifiableList(subCommands);
+
+        Map<String, CommandInfo> index = new HashMap<>();
+        for (CommandInfo subCommand : subCommands) {
+            index.put(subCommand.getName().toLowerCase(), subCommand);
+        }
+        for (CommandInfo subCommand : subCommands) {
+            for (String alias : subCommand.getAliases()) {
+                index.putIfAbsent(alias.toLowerCase(), subCommand);
+            }
+        }
+        this.subCommandIndex = index;
+        this.dispatcher = InterceptorChain.link(this, interceptors, invoker);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<String> getAliases() {
+        return aliases;
+    }
+
+    public String getPermission() {
+        return permission;
+    }
+
+    public String getUsage() {
+        return usage;
+    }
+
+    /**
+     * 获取由用法编译的参数模式, 不校验参数个数时返回null
+     */
+    public UsageSchema getUsageSchema() {
+        return usageSchema;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 批量执行时是否允许并行
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public Object getHandler() {
+        return handler;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 获取预编译的命令调用器
+     */
+    public CommandHandler getInvoker() {
+        return invoker;
+    }
+
+    /**
+     * 获取匹配此命令的拦截器, 按调用顺序排列
+     */
+    public List<CommandInterceptor> getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * 获取链接了拦截器的调用器, 没有拦截器时即为 {@link #getInvoker()}
+     */
+    public CommandHandler getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * 每秒允许的执行次数, 0表示不限流
+     */
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    public int getRateBurst() {
+        return rateBurst;
+    }
+
+    /**
+     * 获取命令的令牌桶, 未限流时返回null
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * 结果缓存的毫秒数, 0表示不缓存
+     */
+    public long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * 缓存结果是否按发送者区分
+     */
+    public boolean isCachePerSender() {
+        return cachePerSender;
+    }
+
+    /**
+     * 执行超时的毫秒数, 0表示不限制
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * 获取执行统计
+     */
+    public CommandStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 返回添加了子命令的新实例, 同名子命令将被替换
+     */
+    public CommandInfo withSubCommand(CommandInfo subCommand) {
+        List<CommandInfo> newSubCommands = new ArrayList<>(subCommands.size() + 1);
+        boolean replaced = false;
+        for (CommandInfo existing : subCommands) {
+            if (existing.getName().equalsIgnoreCase(subCommand.getName())) {
+                newSubCommands.add(subCommand);
+                replaced = true;
+            } else {
+                newSubCommands.add(existing);
+            }
+        }
+        if (!replaced) {
+            newSubCommands.add(subCommand);
+        }
+        return new CommandInfo(this, newSubCommands, enabled);
+    }
+
+    /**
+     * 返回移除了指定子命令的新实例, 子命令不存在时返回当前实例
+     */
+    public CommandInfo withoutSubCommand(String name) {
+        List<CommandInfo> newSubCommands = new ArrayList<>(subCommands.size());
+        for (CommandInfo existing : subCommands) {
+            if (!existing.getName().equalsIgnoreCase(name)) {
+                newSubCommands.add(existing);
+            }
+        }
+        if (newSubCommands.size() == subCommands.size()) {
+            return this;
+        }
+        return new CommandInfo(this, newSubCommands, enabled);
+    }
+
+    /**
+     * 返回修改了启用状态的新实例, 执行统计和限流状态与当前实例共享
+     */
+    public CommandInfo withEnabled(boolean enabled) {
+        if (this.enabled == enabled) {
+            return this;
+        }
+        return new CommandInfo(this, subCommands, enabled);
+    }
+
+    /**
+     * 返回使用指定拦截器的新实例, 子命令保持不变
+     */
+    public CommandInfo withInterceptors(List<CommandInterceptor> interceptors) {
+        if (this.interceptors.equals(interceptors)) {
+            return this;
+        }
+        return new CommandInfo(this, subCommands, enabled, Collections.unmodifiableList(new ArrayList<>(interceptors)));
+    }
+
+    public List<CommandInfo> getSubCommands() {
+        return subCommands;
+    }
+
+    /**
+     * 按名称或别名查找子命令, 不区分大小写
+     */
+    public CommandInfo findSubCommand(String name) {
+        return subCommandIndex.get(name.toLowerCase());
+    }
+
+    /**
+     * 获取子命令名称和别名的前缀树, 键为小写的名称或别名
+     */
+    public NameTrie<CommandInfo> getSubCommandTrie() {
+        NameTrie<CommandInfo> trie = subCommandTrie;
+        if (trie == null) {
+            // 构建结果只取决于不可变的子命令索引, 并发时重复构建也不影响正确性
+            trie = NameTrie.build(subCommandIndex);
+            subCommandTrie = trie;
+        }
+        return trie;
+    }
+
+    public static class Builder {
+        private String name;
+        private String description = "";
+        private List<String> aliases = new ArrayList<>();
+        private String permission = "";
+        private String usage = "";
+        private String category = "default";
+        private boolean enabled = true;
+        private boolean parallel = true;
+        private Object handler;
+        private Method method;
+        private CommandHandler invoker;
+        private List<CommandInterceptor> interceptors = Collections.emptyList();
+        private double rateLimit;
+        private int rateBurst;
+        private long cacheTtl;
+        private boolean cachePerSender;
+        private long timeout;
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder aliases(String... aliases) {
+            this.aliases = Arrays.asList(aliases);
+            return this;
+        }
+
+        public Builder permission(String permission) {
+            this.permission = permission;
+            return this;
+        }
+
+        public Builder usage(String usage) {
+            this.usage = usage;
+            return this;
+        }
+
+        public Builder category(String category) {
+            this.category = category;
+            return this;
+        }
+
+        public Builder enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public Builder parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        public Builder handler(Object handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        public Builder method(Method method) {
+            this.method = method;
+            return this;
+        }
+
+        public Builder invoker(CommandHandler invoker) {
+            this.invoker = invoker;
+            return this;
+        }
+
+        /**
+         * 设置拦截器, 按调用顺序排列
+         */
+        public Builder interceptors(List<CommandInterceptor> interceptors) {
+            this.interceptors = Collections.unmodifiableList(new ArrayList<>(interceptors));
+            return this;
+        }
+
+        /**
+         * 设置每秒允许的执行次数, 所有发送者共享, 0表示不限流
+         */
+        public Builder rateLimit(double rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
+        /**
+         * 设置允许的最大突发次数, 0表示与每秒执行次数相同
+         */
+        public Builder rateBurst(int rateBurst) {
+            this.rateBurst = rateBurst;
+            return this;
+        }
+
+        /**
+         * 设置执行成功的结果缓存的毫秒数, 0表示不缓存
+         */
+        public Builder cacheTtl(long cacheTtl) {
+            this.cacheTtl = cacheTtl;
+            return this;
+        }
+
+        /**
+         * 设置缓存结果是否按发送者区分
+         */
+        public Builder cachePerSender(boolean cachePerSender) {
+            this.cachePerSender = cachePerSender;
+            return this;
+        }
+
+        /**
+         * 设置执行超时的毫秒数, 0表示不限制
+         */
+        public Builder timeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public CommandInfo build() {
+            return new CommandInfo(this);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,156 @@
+package cn.lucas.commandflow.model;
+
+import java.util.Arrays;
+
+/**
+ * 命令行分词结果
+ * <p>
+ * 单次扫描记录每个词在原始命令行中的偏移, 仅在访问时才生成对应的字符串.
+ * 支持双引号、单引号与反斜杠转义, 例如 {@code todo add "a  b"} 的第三个词为 {@code a  b}.
+ */
+final class CommandLine {
+    private static final int[] NO_BOUNDS = new int[0];
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final String raw;
+    /**
+     * 每个词占两个位置: 起始偏移与结束偏移, 需要反转义的词其起始偏移取反存储
+     */
+    private final int[] bounds;
+    private final int tokenCount;
+    private String[] tokens;
+
+    private CommandLine(String raw, int[] bounds, int tokenCount) {
+        this.raw = raw;
+        this.bounds = bounds;
+        this.tokenCount = tokenCount;
+    }
+
+    /**
+     * 对命令行进行分词
+     */
+    static CommandLine parse(String raw) {
+        int length = raw.length();
+        int[] bounds = NO_BOUNDS;
+        int count = 0;
+        int i = 0;
+
+        while (i < length) {
+            char c = raw.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            boolean escaped = false;
+            char quote = 0;
+
+            while (i < length) {
+                c = raw.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    } else if (c == '\\' && quote == '"' && i + 1 < length) {
+                        i++;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                    escaped = true;
+                } else if (c == '\\') {
+                    escaped = true;
+                    if (i + 1 < length) {
+                        i++;
+                    }
+                } else if (Character.isWhitespace(c)) {
+                    break;
+                }
+                i++;
+            }
+
+            if (bounds.length == count * 2) {
+                bounds = Arrays.copyOf(bounds, Math.max(8, bounds.length * 2));
+            }
+            bounds[count * 2] = escaped ? ~start : start;
+            bounds[count * 2 + 1] = i;
+            count++;
+        }
+
+        return new CommandLine(raw, bounds, count);
+    }
+
+    /**
+     * 由已分好的词创建命令行, 用于改写参数
+     */
+    static CommandLine of(String raw, String[] tokens) {
+        CommandLine line = new CommandLine(raw, NO_BOUNDS, tokens.length);
+        line.tokens = tokens;
+        return line;
+    }
+
+    String getRaw() {
+        return raw;
+    }
+
+    int size() {
+        return tokenCount;
+    }
+
+    /**
+     * 获取第index个词, 首次访问时才生成字符串
+     */
+    String token(int index) {
+        if (index < 0 || index >= tokenCount) {
+            return null;
+        }
+        if (tokens == null) {
+            tokens = new String[tokenCount];
+        }
+        String token = tokens[index];
+        if (token == null) {
+            int start = bounds[index * 2];
+            int end = bounds[index * 2 + 1];
+            token = start >= 0 ? raw.substring(start, end) : unescape(~start, end);
+            tokens[index] = token;
+        }
+        return token;
+    }
+
+    /**
+     * 获取从from开始的所有词
+     */
+    String[] tokens(int from) {
+        if (from >= tokenCount) {
+            return NO_TOKENS;
+        }
+        String[] result = new String[tokenCount - from];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = token(from + i);
+        }
+        return result;
+    }
+
+    private String unescape(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        char quote = 0;
+        for (int i = start; i < end; i++) {
+            char c = raw.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && quote == '"' && i + 1 < end) {
+                    sb.append(raw.charAt(++i));
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '\\' && i + 1 < end) {
+                sb.append(raw.charAt(++i));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
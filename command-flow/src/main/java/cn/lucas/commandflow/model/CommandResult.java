@@ -30,6 +30,10 @@ public class CommandResult {
         return new CommandResult(Status.ERROR, message, null);
     }
 
+    public static CommandResult error(String message, Object data) {
+        return new CommandResult(Status.ERROR, message, data);
+    }
+
     public static CommandResult permissionDenied(String message) {
         return new CommandResult(Status.PERMISSION_DENIED, message, null);
     }
@@ -38,6 +42,21 @@ public class CommandResult {
         return new CommandResult(Status.SYNTAX_ERROR, message, null);
     }
 
+    public static CommandResult throttled(String message) {
+        return new CommandResult(Status.THROTTLED, message, null);
+    }
+
+    public static CommandResult timeout(String message) {
+        return new CommandResult(Status.TIMEOUT, message, null);
+    }
+
+    /**
+     * 创建状态和数据相同、消息不同的结果
+     */
+    public CommandResult withMessage(String message) {
+        return new CommandResult(status, message, data);
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -60,6 +79,6 @@ public class CommandResult {
     }
 
     public enum Status {
-        SUCCESS, ERROR, PERMISSION_DENIED, SYNTAX_ERROR
+        SUCCESS, ERROR, PERMISSION_DENIED, SYNTAX_ERROR, THROTTLED, TIMEOUT
     }
 } 
\ No newline at end of file
@@ -0,0 +1,130 @@
+package cn.lucas.commandflow.model;
+
+/**
+ * 由命令用法编译的参数模式
+ * <p>
+ * 用法中 {@code <参数>} 表示必需参数, {@code [参数]} 表示可选参数, 以 {@code ...} 结尾表示可接受任意多个参数,
+ * 例如 {@code "todo add <内容...>"}. 第一个参数之前的单词视为命令路径, 之后的单词视为必需的字面参数.
+ */
+public final class UsageSchema {
+    /**
+     * 参数个数不受限制
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final int minArgs;
+    private final int maxArgs;
+
+    private UsageSchema(int minArgs, int maxArgs) {
+        this.minArgs = minArgs;
+        this.maxArgs = maxArgs;
+    }
+
+    /**
+     * 编译命令用法
+     *
+     * @return 用法中没有参数占位符时返回null, 表示不校验参数个数
+     */
+    public static UsageSchema compile(String usage) {
+        if (usage == null || usage.isEmpty()) {
+            return null;
+        }
+
+        int minArgs = 0;
+        int maxArgs = 0;
+        boolean variadic = false;
+        boolean placeholderSeen = false;
+        int length = usage.length();
+        int i = 0;
+        while (i < length) {
+            char c = usage.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (c == '<' || c == '[') {
+                int end = findClosing(usage, i);
+                String group = usage.substring(i + 1, end);
+                int count = c == '<' ? 1 : Math.max(1, countPlaceholders(group));
+                if (c == '<') {
+                    minArgs += count;
+                }
+                maxArgs += count;
+                i = end + 1;
+                if (group.endsWith("...") || usage.startsWith("...", i)) {
+                    variadic = true;
+                }
+                placeholderSeen = true;
+            } else {
+                int start = i;
+                while (i < length && !Character.isWhitespace(usage.charAt(i))
+                        && usage.charAt(i) != '<' && usage.charAt(i) != '[') {
+                    i++;
+                }
+                String word = usage.substring(start, i);
+                if (placeholderSeen && !word.equals("...")) {
+                    minArgs++;
+                    maxArgs++;
+                }
+            }
+        }
+
+        if (!placeholderSeen) {
+            return null;
+        }
+        return new UsageSchema(minArgs, variadic ? UNBOUNDED : maxArgs);
+    }
+
+    /**
+     * 查找与起始括号匹配的结束括号, 未闭合时视为延伸到用法末尾
+     */
+    private static int findClosing(String usage, int start) {
+        int depth = 0;
+        for (int i = start; i < usage.length(); i++) {
+            char c = usage.charAt(i);
+            if (c == '<' || c == '[') {
+                depth++;
+            } else if ((c == '>' || c == ']') && --depth == 0) {
+                return i;
+            }
+        }
+        return usage.length();
+    }
+
+    private static int countPlaceholders(String group) {
+        int count = 0;
+        for (int i = 0; i < group.length(); i++) {
+            if (group.charAt(i) == '<') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 参数个数是否符合用法
+     */
+    public boolean accepts(int argCount) {
+        return argCount >= minArgs && argCount <= maxArgs;
+    }
+
+    public int getMinArgs() {
+        return minArgs;
+    }
+
+    /**
+     * 最多接受的参数个数, 不受限制时为 {@link #UNBOUNDED}
+     */
+    public int getMaxArgs() {
+        return maxArgs;
+    }
+
+    @Override
+    public String toString() {
+        return "UsageSchema{" +
+                "minArgs=" + minArgs +
+                ", maxArgs=" + (maxArgs == UNBOUNDED ? "*" : String.valueOf(maxArgs)) +
+                '}';
+    }
+}
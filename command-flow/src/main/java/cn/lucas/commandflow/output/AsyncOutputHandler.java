@@ -0,0 +1,291 @@
+package cn.lucas.commandflow.output;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 异步输出处理器
+ * <p>
+ * 消息先写入有界环形缓冲区, 由单个输出线程批量取出后交给下游处理器, 下游处理器较慢时不会阻塞命令执行.
+ * 每批消息处理完后, 若下游处理器实现了 {@link Flushable} 则调用一次 flush.
+ *
+ * <pre>{@code
+ * AsyncOutputHandler output = new AsyncOutputHandler(fileWriter, 8192, OverflowPolicy.DROP_OLDEST);
+ * commandFlow.setOutputHandler(output);
+ * }</pre>
+ */
+public class AsyncOutputHandler implements Consumer<String>, Closeable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final Consumer<String> sink;
+    private final OverflowPolicy overflowPolicy;
+    private final String[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition progressed = lock.newCondition();
+    private final Thread consumer;
+
+    // 以下字段由lock保护
+    private int head;
+    private int size;
+    /**
+     * 已写入缓冲区的消息总数
+     */
+    private long enqueued;
+    /**
+     * 已输出或因DROP_OLDEST丢弃的消息总数, 与enqueued一起用于flush
+     */
+    private long completed;
+    private long delivered;
+    private long dropped;
+    private boolean closed;
+
+    public AsyncOutputHandler(Consumer<String> sink) {
+        this(sink, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param sink           下游输出处理器, 只在输出线程中调用
+     * @param capacity       缓冲区容量
+     * @param overflowPolicy 缓冲区已满时的处理策略
+     */
+    public AsyncOutputHandler(Consumer<String> sink, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity必须大于0");
+        }
+        this.sink = sink;
+        this.overflowPolicy = overflowPolicy;
+        this.ring = new String[capacity];
+        this.consumer = new Thread(this::drainLoop, "CommandFlow-output");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * 写入一条消息, 关闭后写入的消息计为丢弃
+     */
+    @Override
+    public void accept(String message) {
+        // 下游处理器再次输出时直接处理, 避免输出线程等待自身
+        if (Thread.currentThread() == consumer) {
+            deliver(message);
+            lock.lock();
+            try {
+                delivered++;
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (size == ring.length && !closed) {
+                if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                    dropped++;
+                    return;
+                }
+                if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                    size--;
+                    dropped++;
+                    completed++;
+                    progressed.signalAll();
+                } else {
+                    while (size == ring.length && !closed) {
+                        notFull.awaitUninterruptibly();
+                    }
+                }
+            }
+            if (closed) {
+                dropped++;
+                return;
+            }
+
+            ring[(head + size) % ring.length] = message;
+            size++;
+            enqueued++;
+            if (size == 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待调用前写入的消息全部输出
+     */
+    public void flush() {
+        flush(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 等待调用前写入的消息全部输出
+     *
+     * @return 超时前是否已全部输出
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        if (Thread.currentThread() == consumer) {
+            return true;
+        }
+
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            long target = enqueued;
+            while (completed < target && consumer.isAlive()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    remaining = progressed.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 停止接收新消息, 输出缓冲区中剩余的消息后结束输出线程
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (Thread.currentThread() != consumer) {
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 缓冲区中等待输出的消息数
+     */
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 已丢弃的消息数
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 已输出的消息数
+     */
+    public long getDeliveredCount() {
+        lock.lock();
+        try {
+            return delivered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    private void drainLoop() {
+        String[] batch = new String[Math.min(MAX_BATCH_SIZE, ring.length)];
+        while (true) {
+            int count;
+            lock.lock();
+            try {
+                while (size == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (size == 0) {
+                    return;
+                }
+
+                count = Math.min(size, batch.length);
+                for (int i = 0; i < count; i++) {
+                    batch[i] = ring[head];
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                }
+                size -= count;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            for (int i = 0; i < count; i++) {
+                deliver(batch[i]);
+                batch[i] = null;
+            }
+            flushSink();
+
+            lock.lock();
+            try {
+                delivered += count;
+                completed += count;
+                progressed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void deliver(String message) {
+        try {
+            sink.accept(message);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void flushSink() {
+        if (sink instanceof Flushable) {
+            try {
+                ((Flushable) sink).flush();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package cn.lucas.commandflow.output;
+
+/**
+ * 输出缓冲区已满时的处理策略
+ */
+public enum OverflowPolicy {
+    /**
+     * 阻塞调用者直到有空位
+     */
+    BLOCK,
+    /**
+     * 丢弃最早的消息
+     */
+    DROP_OLDEST,
+    /**
+     * 丢弃新消息
+     */
+    DROP_NEWEST
+}
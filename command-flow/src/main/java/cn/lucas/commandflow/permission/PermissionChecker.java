@@ -0,0 +1,17 @@
+package cn.lucas.commandflow.permission;
+
+/**
+ * 权限检查器
+ */
+@FunctionalInterface
+public interface PermissionChecker {
+
+    /**
+     * 检查发送者是否拥有权限节点
+     *
+     * @param sender     发送者
+     * @param permission 权限节点, 例如 "admin.user.kick"
+     * @return 是否拥有权限
+     */
+    boolean hasPermission(Object sender, String permission);
+}
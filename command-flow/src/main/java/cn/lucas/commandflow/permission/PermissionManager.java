@@ -0,0 +1,134 @@
+package cn.lucas.commandflow.permission;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 基于权限节点树的权限管理器
+ * <p>
+ * 每个发送者的授权编译为一棵 {@link PermissionTree}, 检查结果按 (发送者, 节点) 缓存,
+ * 授权变更时重新编译并丢弃该发送者的缓存. 发送者按 equals/hashCode 区分.
+ *
+ * <pre>{@code
+ * PermissionManager permissions = new PermissionManager();
+ * permissions.grant(user, "admin.*", "-admin.user.kick");
+ * commandFlow.setPermissionChecker(permissions);
+ * }</pre>
+ */
+public class PermissionManager implements PermissionChecker {
+    public static final int DEFAULT_MAX_CACHED_DECISIONS = 256;
+
+    private final Map<Object, Subject> subjects = new ConcurrentHashMap<>();
+    private final int maxCachedDecisions;
+
+    public PermissionManager() {
+        this(DEFAULT_MAX_CACHED_DECISIONS);
+    }
+
+    /**
+     * @param maxCachedDecisions 每个发送者缓存的最大检查结果数
+     */
+    public PermissionManager(int maxCachedDecisions) {
+        this.maxCachedDecisions = maxCachedDecisions;
+    }
+
+    /**
+     * 授予权限, 以 "-" 开头的节点表示拒绝
+     */
+    public void grant(Object sender, String... permissions) {
+        subject(sender).update(grants -> grants.addAll(Arrays.asList(permissions)));
+    }
+
+    /**
+     * 移除之前授予的权限
+     */
+    public void revoke(Object sender, String... permissions) {
+        Subject subject = subjects.get(sender);
+        if (subject != null) {
+            subject.update(grants -> grants.removeAll(Arrays.asList(permissions)));
+        }
+    }
+
+    /**
+     * 替换发送者的全部授权
+     */
+    public void setGrants(Object sender, Collection<String> permissions) {
+        subject(sender).update(grants -> {
+            grants.clear();
+            grants.addAll(permissions);
+        });
+    }
+
+    /**
+     * 移除发送者的全部授权
+     */
+    public void clear(Object sender) {
+        subjects.remove(sender);
+    }
+
+    /**
+     * 获取发送者的授权
+     */
+    public Set<String> getGrants(Object sender) {
+        Subject subject = subjects.get(sender);
+        return subject != null ? subject.compiled.grants : Collections.<String>emptySet();
+    }
+
+    @Override
+    public boolean hasPermission(Object sender, String permission) {
+        if (permission == null || permission.isEmpty()) {
+            return true;
+        }
+        Subject subject = sender != null ? subjects.get(sender) : null;
+        if (subject == null) {
+            return false;
+        }
+
+        Compiled compiled = subject.compiled;
+        Boolean cached = compiled.decisions.get(permission);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean decision = compiled.tree.test(permission);
+        if (compiled.decisions.size() >= maxCachedDecisions) {
+            compiled.decisions.clear();
+        }
+        compiled.decisions.put(permission, decision);
+        return decision;
+    }
+
+    private Subject subject(Object sender) {
+        return subjects.computeIfAbsent(sender, k -> new Subject());
+    }
+
+    private static final class Subject {
+        private volatile Compiled compiled = new Compiled(Collections.<String>emptySet());
+
+        private synchronized void update(Consumer<Set<String>> update) {
+            Set<String> grants = new LinkedHashSet<>(compiled.grants);
+            update.accept(grants);
+            compiled = new Compiled(grants);
+        }
+    }
+
+    /**
+     * 一组授权的编译结果及其检查缓存, 授权变更时整体替换
+     */
+    private static final class Compiled {
+        private final Set<String> grants;
+        private final PermissionTree tree;
+        private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+        private Compiled(Set<String> grants) {
+            this.grants = Collections.unmodifiableSet(grants);
+            this.tree = PermissionTree.compile(grants);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package cn.lucas.commandflow.permission;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 由一组授权编译而成的权限节点树
+ * <p>
+ * 授权格式:
+ * <ul>
+ *     <li>{@code admin.user.kick} 授予单个节点</li>
+ *     <li>{@code admin.*} 授予 admin 下的所有节点, 单独的 {@code *} 授予全部节点</li>
+ *     <li>{@code -admin.user.kick} 或 {@code -admin.*} 表示取反, 拒绝对应节点</li>
+ * </ul>
+ * 更具体的授权优先, 同一节点同时被授予和拒绝时拒绝优先. 节点不区分大小写.
+ */
+public final class PermissionTree {
+    public static final PermissionTree EMPTY = compile(Collections.<String>emptyList());
+
+    private final Node root;
+
+    private PermissionTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 编译授权列表
+     */
+    public static PermissionTree compile(Collection<String> grants) {
+        Node root = new Node();
+        for (String grant : grants) {
+            String node = grant.trim().toLowerCase();
+            boolean allowed = !node.startsWith("-");
+            if (!allowed) {
+                node = node.substring(1);
+            }
+            if (node.isEmpty()) {
+                continue;
+            }
+
+            Node current = root;
+            String[] segments = node.split("\\.");
+            for (int i = 0; i < segments.length; i++) {
+                if (i == segments.length - 1 && segments[i].equals("*")) {
+                    current.wildcard = merge(current.wildcard, allowed);
+                    break;
+                }
+                current = current.children.computeIfAbsent(segments[i], k -> new Node());
+                if (i == segments.length - 1) {
+                    current.exact = merge(current.exact, allowed);
+                }
+            }
+        }
+        return new PermissionTree(root);
+    }
+
+    private static Boolean merge(Boolean existing, boolean allowed) {
+        return existing == null ? allowed : existing && allowed;
+    }
+
+    /**
+     * 检查节点是否被授予
+     */
+    public boolean test(String permission) {
+        String node = permission.toLowerCase();
+        Node current = root;
+        Boolean decision = root.wildcard;
+        int start = 0;
+        while (true) {
+            int dot = node.indexOf('.', start);
+            current = current.children.get(dot < 0 ? node.substring(start) : node.substring(start, dot));
+            if (current == null) {
+                break;
+            }
+            if (dot < 0) {
+                if (current.exact != null) {
+                    decision = current.exact;
+                }
+                break;
+            }
+            if (current.wildcard != null) {
+                decision = current.wildcard;
+            }
+            start = dot + 1;
+        }
+        return decision != null && decision;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        /**
+         * 对当前节点本身的授权, 未授权时为null
+         */
+        private Boolean exact;
+        /**
+         * 对当前节点所有下级节点的授权, 未授权时为null
+         */
+        private Boolean wildcard;
+    }
+}
@@ -0,0 +1,246 @@
+package cn.lucas.commandflow.pipeline;
+
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.stream.BaseStream;
+
+/**
+ * 管道, 在相邻的两个命令之间按顺序传递元素
+ * <p>
+ * 上游命令逐个写入元素, 下游命令边读取边处理, 中间结果不会整体保存或转换为字符串.
+ * 缓冲区已满时上游等待下游读取; 下游命令结束后管道被中止, 上游的写入抛出 {@link CancellationException}.
+ * 上游先于下游执行完毕的管道不等待, 缓冲区已满时写入抛出 {@link IllegalStateException}.
+ * 管道只允许一个写入线程和一个读取线程.
+ */
+public final class Pipe {
+    public static final int DEFAULT_CAPACITY = 256;
+    /**
+     * 上游已结束且缓冲区为空
+     */
+    private static final Object END = new Object();
+
+    private final int capacity;
+    private final boolean blocking;
+    private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+    /**
+     * 上游是否写入过元素, 未写入时下游读取上游结果的data
+     */
+    private boolean written;
+    private boolean closed;
+    /**
+     * 上游结束前下游已停止读取
+     */
+    private boolean aborted;
+    private CommandResult result;
+    private Runnable onAbort;
+
+    /**
+     * @param capacity 缓冲区最多容纳的元素数
+     */
+    public Pipe(int capacity) {
+        this(capacity, true);
+    }
+
+    /**
+     * @param capacity 缓冲区最多容纳的元素数
+     * @param blocking 缓冲区已满时上游是否等待下游读取; 上游执行完毕后下游才开始读取时为false
+     */
+    public Pipe(int capacity, boolean blocking) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity必须大于0");
+        }
+        this.capacity = capacity;
+        this.blocking = blocking;
+    }
+
+    /**
+     * 写入一个元素, 缓冲区已满时等待下游读取
+     *
+     * @throws CancellationException 下游命令已结束或等待时线程被中断
+     * @throws IllegalStateException 不等待的管道缓冲区已满
+     */
+    public synchronized void write(Object element) {
+        if (element == null) {
+            throw new NullPointerException("管道元素不能为null");
+        }
+        if (!blocking && !aborted && buffer.size() >= capacity) {
+            throw new IllegalStateException("管道缓冲区已满, 最多 " + capacity + " 个元素");
+        }
+        while (!aborted && buffer.size() >= capacity) {
+            await();
+        }
+        if (aborted) {
+            throw new CancellationException("下游命令已结束");
+        }
+        if (buffer.isEmpty()) {
+            notifyAll();
+        }
+        buffer.add(element);
+        written = true;
+    }
+
+    /**
+     * 上游命令结束, 下游读取完缓冲区中的元素后结束
+     *
+     * @param result 上游命令的结果, 未写入元素时下游读取其data
+     */
+    public synchronized void close(CommandResult result) {
+        this.result = result;
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * 下游不再读取, 丢弃缓冲区中的元素; 上游仍在执行时唤醒等待中的写入并执行中止回调
+     */
+    public void abort() {
+        Runnable callback;
+        synchronized (this) {
+            buffer.clear();
+            if (closed || aborted) {
+                return;
+            }
+            aborted = true;
+            callback = onAbort;
+            notifyAll();
+        }
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    /**
+     * 设置中止回调, 例如取消上游命令; 管道已中止时立即执行
+     */
+    public void onAbort(Runnable callback) {
+        synchronized (this) {
+            if (!aborted) {
+                onAbort = callback;
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /**
+     * 上游命令是否因下游停止读取而被中止
+     */
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * 读取全部元素, 等待上游命令结束
+     *
+     * @return 上游写入过元素时为剩余元素的列表, 否则为上游结果的data
+     */
+    public Object collect() {
+        List<Object> elements = new ArrayList<>();
+        Object element;
+        while ((element = take()) != END) {
+            elements.add(element);
+        }
+        synchronized (this) {
+            return written ? elements : upstreamData();
+        }
+    }
+
+    /**
+     * 逐个读取元素, 上游仍在执行时边读取边返回
+     * <p>
+     * 上游没有写入元素时依次返回上游结果data中的元素: 集合、数组、Iterator 与 Stream 逐个返回,
+     * 其他对象作为唯一的元素, null 表示没有元素
+     */
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private Object next;
+            private boolean fetched;
+            private Iterator<?> fallback;
+
+            @Override
+            public boolean hasNext() {
+                if (fallback != null) {
+                    return fallback.hasNext();
+                }
+                if (!fetched) {
+                    next = take();
+                    fetched = true;
+                    if (next == END) {
+                        fallback = fallback();
+                        return fallback.hasNext();
+                    }
+                }
+                return next != END;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (fallback != null) {
+                    return fallback.next();
+                }
+                fetched = false;
+                return next;
+            }
+        };
+    }
+
+    private synchronized Object take() {
+        while (buffer.isEmpty() && !closed) {
+            await();
+        }
+        if (buffer.isEmpty()) {
+            return END;
+        }
+        if (buffer.size() >= capacity) {
+            notifyAll();
+        }
+        return buffer.poll();
+    }
+
+    private synchronized Iterator<?> fallback() {
+        return written ? Collections.emptyIterator() : elementsOf(upstreamData());
+    }
+
+    private Object upstreamData() {
+        return result != null ? result.getData() : null;
+    }
+
+    private static Iterator<?> elementsOf(Object data) {
+        if (data == null) {
+            return Collections.emptyIterator();
+        }
+        if (data instanceof Iterable) {
+            return ((Iterable<?>) data).iterator();
+        }
+        if (data instanceof Iterator) {
+            return (Iterator<?>) data;
+        }
+        if (data instanceof BaseStream) {
+            return ((BaseStream<?, ?>) data).iterator();
+        }
+        if (data instanceof Object[]) {
+            return Arrays.asList((Object[]) data).iterator();
+        }
+        return Collections.singleton(data).iterator();
+    }
+
+    private void await() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("命令已取消");
+        }
+    }
+}
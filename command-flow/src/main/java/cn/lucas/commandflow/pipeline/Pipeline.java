@@ -0,0 +1,160 @@
+package cn.lucas.commandflow.pipeline;
+
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 命令管道与连接符的解析结果
+ * <p>
+ * 支持 {@code ;} (依次执行)、{@code &&} (前一命令成功时执行)、{@code ||} (前一命令失败时执行)
+ * 与 {@code |} (管道, 将前一命令的输出传给后一命令). 管道符优先于连接符, 连接符从左到右依次判断.
+ * 与命令行分词规则一致, 引号内或反斜杠转义的符号不作处理.
+ */
+public final class Pipeline {
+
+    /**
+     * 连接符, 决定一组管道命令是否执行
+     */
+    public enum Operator {
+        /**
+         * 第一组命令或 {@code ;}, 总是执行
+         */
+        SEQUENCE,
+        /**
+         * {@code &&}, 前一组命令成功时执行
+         */
+        AND,
+        /**
+         * {@code ||}, 前一组命令失败时执行
+         */
+        OR;
+
+        /**
+         * @param previous 上一组执行的命令的结果
+         */
+        public boolean shouldRun(CommandResult previous) {
+            switch (this) {
+                case AND:
+                    return previous.isSuccess();
+                case OR:
+                    return !previous.isSuccess();
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * 以管道符连接的一组命令
+     */
+    public static final class Segment {
+        private final Operator operator;
+        private final List<String> stages;
+
+        private Segment(Operator operator, List<String> stages) {
+            this.operator = operator;
+            this.stages = Collections.unmodifiableList(stages);
+        }
+
+        /**
+         * 与前一组命令之间的连接符
+         */
+        public Operator getOperator() {
+            return operator;
+        }
+
+        /**
+         * 管道中的命令行, 按数据流动的顺序排列
+         */
+        public List<String> getStages() {
+            return stages;
+        }
+    }
+
+    private final List<Segment> segments;
+
+    private Pipeline(List<Segment> segments) {
+        this.segments = Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * 命令行是否可能包含管道符或连接符, 用于快速跳过普通命令
+     */
+    public static boolean hasOperators(String line) {
+        return line.indexOf('|') >= 0 || line.indexOf(';') >= 0 || line.indexOf('&') >= 0;
+    }
+
+    /**
+     * 解析命令行
+     *
+     * @return 命令行不含管道符或连接符 (包括只出现在引号内) 时返回null
+     * @throws IllegalArgumentException 管道符或连接符两侧缺少命令时抛出
+     */
+    public static Pipeline parse(String line) {
+        if (!hasOperators(line)) {
+            return null;
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        List<String> stages = new ArrayList<>();
+        Operator operator = Operator.SEQUENCE;
+        int length = line.length();
+        int start = 0;
+        char quote = 0;
+        String symbol = null;
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && quote == '"') {
+                    i++;
+                }
+                continue;
+            }
+
+            if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '\\') {
+                i++;
+            } else if (c == '|' || c == ';' || (c == '&' && i + 1 < length && line.charAt(i + 1) == '&')) {
+                boolean doubled = c != ';' && i + 1 < length && line.charAt(i + 1) == c;
+                symbol = doubled ? line.substring(i, i + 2) : String.valueOf(c);
+                String stage = line.substring(start, i).trim();
+                if (stage.isEmpty()) {
+                    throw new IllegalArgumentException("'" + symbol + "' 前缺少命令");
+                }
+                stages.add(stage);
+                if (doubled) {
+                    i++;
+                }
+                start = i + 1;
+                if (c == '|' && !doubled) {
+                    continue;
+                }
+
+                segments.add(new Segment(operator, stages));
+                stages = new ArrayList<>();
+                operator = c == ';' ? Operator.SEQUENCE : c == '&' ? Operator.AND : Operator.OR;
+            }
+        }
+
+        String last = line.substring(start).trim();
+        if (!last.isEmpty()) {
+            stages.add(last);
+            segments.add(new Segment(operator, stages));
+        } else if (symbol != null && !";".equals(symbol)) {
+            // 只有 ';' 之后可以没有命令
+            throw new IllegalArgumentException("'" + symbol + "' 后缺少命令");
+        }
+
+        return symbol != null ? new Pipeline(segments) : null;
+    }
+
+    public List<Segment> getSegments() {
+        return segments;
+    }
+}
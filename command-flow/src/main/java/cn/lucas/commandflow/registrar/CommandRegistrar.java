@@ -0,0 +1,18 @@
+package cn.lucas.commandflow.registrar;
+
+/**
+ * 命令注册器
+ * <p>
+ * 由注解处理器在编译期为每个命令处理器类生成, 通过直接方法调用注册命令, 无需反射
+ *
+ * @param <T> 命令处理器类型
+ */
+public interface CommandRegistrar<T> {
+    /**
+     * 注册处理器中的所有命令
+     *
+     * @param handler      命令处理器对象
+     * @param registration 命令注册入口
+     */
+    void register(T handler, CommandRegistration registration);
+}
@@ -0,0 +1,70 @@
+package cn.lucas.commandflow.registrar;
+
+import java.lang.reflect.Method;
+
+/**
+ * 命令注册器查找工具
+ */
+public final class CommandRegistrars {
+    /**
+     * 生成的注册器类名后缀
+     */
+    public static final String SUFFIX = "_CommandRegistrar";
+
+    private static final ClassValue<CommandRegistrar<?>> REGISTRARS = new ClassValue<CommandRegistrar<?>>() {
+        @Override
+        protected CommandRegistrar<?> computeValue(Class<?> type) {
+            try {
+                Class<?> registrarClass = Class.forName(registrarName(type), true, type.getClassLoader());
+                if (CommandRegistrar.class.isAssignableFrom(registrarClass)) {
+                    return (CommandRegistrar<?>) registrarClass.getDeclaredConstructor().newInstance();
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                // 没有生成的注册器
+            } catch (ReflectiveOperationException e) {
+                // 无法实例化, 回退到反射注册
+            }
+            return ReflectiveCommandRegistrar.INSTANCE;
+        }
+    };
+
+    private CommandRegistrars() {
+    }
+
+    /**
+     * 获取处理器类的注册器, 没有编译期生成的注册器时返回反射注册器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CommandRegistrar<T> forClass(Class<T> handlerClass) {
+        return (CommandRegistrar<T>) REGISTRARS.get(handlerClass);
+    }
+
+    /**
+     * 处理器类是否有编译期生成的注册器
+     */
+    public static boolean isGenerated(Class<?> handlerClass) {
+        return REGISTRARS.get(handlerClass) != ReflectiveCommandRegistrar.INSTANCE;
+    }
+
+    /**
+     * 获取命令方法, 供生成的注册器绑定类型化参数的方法使用
+     *
+     * @throws IllegalStateException 方法不存在时抛出
+     */
+    public static Method method(Class<?> handlerClass, String name, Class<?>... parameterTypes) {
+        try {
+            return handlerClass.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("命令方法不存在: " + handlerClass.getName() + "." + name, e);
+        }
+    }
+
+    /**
+     * 计算处理器类对应的注册器类名, 嵌套类的 '$' 替换为 '_'
+     */
+    public static String registrarName(Class<?> handlerClass) {
+        String name = handlerClass.getName();
+        int packageEnd = name.lastIndexOf('.');
+        return name.substring(0, packageEnd + 1) + name.substring(packageEnd + 1).replace('$', '_') + SUFFIX;
+    }
+}
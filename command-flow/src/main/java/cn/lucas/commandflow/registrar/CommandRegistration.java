@@ -0,0 +1,23 @@
+package cn.lucas.commandflow.registrar;
+
+import cn.lucas.commandflow.model.CommandInfo;
+
+/**
+ * 命令注册入口
+ */
+public interface CommandRegistration {
+    /**
+     * 注册主命令
+     *
+     * @param command 命令信息构建器
+     */
+    void command(CommandInfo.Builder command);
+
+    /**
+     * 注册子命令
+     *
+     * @param parent     父命令路径, 多级子命令使用空格分隔
+     * @param subCommand 子命令信息构建器
+     */
+    void subCommand(String parent, CommandInfo.Builder subCommand);
+}
@@ -0,0 +1,62 @@
+package cn.lucas.commandflow.registrar;
+
+import cn.lucas.commandflow.annotation.Command;
+import cn.lucas.commandflow.annotation.SubCommand;
+import cn.lucas.commandflow.model.CommandInfo;
+
+import java.lang.reflect.Method;
+
+/**
+ * 基于反射的命令注册器, 处理器类没有编译期生成的注册器时使用
+ */
+public final class ReflectiveCommandRegistrar implements CommandRegistrar<Object> {
+    public static final ReflectiveCommandRegistrar INSTANCE = new ReflectiveCommandRegistrar();
+
+    private ReflectiveCommandRegistrar() {
+    }
+
+    @Override
+    public void register(Object handler, CommandRegistration registration) {
+        for (Method method : handler.getClass().getDeclaredMethods()) {
+            Command command = method.getAnnotation(Command.class);
+            if (command != null) {
+                registration.command(new CommandInfo.Builder()
+                        .name(command.name())
+                        .description(command.description())
+                        .aliases(command.aliases())
+                        .permission(command.permission())
+                        .usage(command.usage())
+                        .category(command.category())
+                        .enabled(command.enabled())
+                        .parallel(command.parallel())
+                        .rateLimit(command.rateLimit())
+                        .rateBurst(command.rateBurst())
+                        .cacheTtl(command.cacheTtl())
+                        .cachePerSender(command.cachePerSender())
+                        .timeout(command.timeout())
+                        .handler(handler)
+                        .method(method));
+            }
+
+            SubCommand subCommand = method.getAnnotation(SubCommand.class);
+            if (subCommand != null) {
+                registration.subCommand(subCommand.parent(), new CommandInfo.Builder()
+                        .name(subCommand.name())
+                        .description(subCommand.description())
+                        .aliases(subCommand.aliases())
+                        .permission(subCommand.permission())
+                        .usage(subCommand.usage())
+                        .category(subCommand.category())
+                        .enabled(subCommand.enabled())
+                        .parallel(subCommand.parallel())
+                        .rateLimit(subCommand.rateLimit())
+                        .rateBurst(subCommand.rateBurst())
+                        .cacheTtl(subCommand.cacheTtl())
+                        .cachePerSender(subCommand.cachePerSender())
+                        .timeout(subCommand.timeout())
+                        .handler(handler)
+                        .method(method));
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package cn.lucas.commandflow.server;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 基于NIO Selector的远程命令服务器
+ * <p>
+ * 少量I/O线程负责所有连接的读写, 命令通过 {@link CommandFlow#executeAsync(String, Object)} 在异步执行器中运行,
+ * 不会为每个客户端创建线程. 支持TCP以及运行时支持时的Unix域套接字.
+ *
+ * <pre>{@code
+ * CommandServer server = new CommandServer.Builder(commandFlow)
+ *         .bind(9000)
+ *         .build()
+ *         .start();
+ * }</pre>
+ */
+public class CommandServer implements Closeable {
+    private final CommandFlow commandFlow;
+    private final SocketAddress address;
+    private final Path unixSocketPath;
+    private final int maxConnections;
+    private final int maxPipelinedCommands;
+    private final long maxPendingWriteBytes;
+    private final Function<CommandSession, Object> senderFactory;
+    private final Consumer<CommandSession> closeListener;
+    private final IoLoop[] loops;
+    private final Map<Long, CommandSession> sessions = new ConcurrentHashMap<>();
+
+    private ServerSocketChannel serverChannel;
+    // 仅由接收连接的I/O线程访问
+    private long nextSessionId;
+    private int nextLoop;
+    private volatile boolean running;
+
+    private CommandServer(Builder builder) throws IOException {
+        this.commandFlow = builder.commandFlow;
+        this.address = builder.address;
+        this.unixSocketPath = builder.unixSocketPath;
+        this.maxConnections = builder.maxConnections;
+        this.maxPipelinedCommands = builder.maxPipelinedCommands;
+        this.maxPendingWriteBytes = builder.maxPendingWriteBytes;
+        this.senderFactory = builder.senderFactory;
+        this.closeListener = builder.closeListener;
+        this.loops = new IoLoop[builder.ioThreads];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new IoLoop(this, "CommandFlow-io-" + (i + 1), builder.bufferSize, builder.maxPooledBuffers);
+        }
+    }
+
+    /**
+     * 绑定地址并启动I/O线程
+     */
+    public synchronized CommandServer start() throws IOException {
+        if (running) {
+            return this;
+        }
+
+        serverChannel = openServerChannel(address);
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            // 第一个I/O线程同时负责接收连接
+            serverChannel.register(loops[0].selector(), SelectionKey.OP_ACCEPT, this);
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+
+        running = true;
+        for (IoLoop loop : loops) {
+            loop.start();
+        }
+        return this;
+    }
+
+    /**
+     * 获取实际绑定的地址, 绑定端口0时可用于获取分配的端口
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    /**
+     * 获取当前所有会话
+     */
+    public Collection<CommandSession> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public int getMaxPipelinedCommands() {
+        return maxPipelinedCommands;
+    }
+
+    public long getMaxPendingWriteBytes() {
+        return maxPendingWriteBytes;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 停止接收连接并关闭所有会话
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        serverChannel.close();
+        for (IoLoop loop : loops) {
+            loop.shutdown();
+        }
+        try {
+            for (IoLoop loop : loops) {
+                loop.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 关闭尚未注册到I/O线程的会话
+        for (CommandSession session : sessions.values()) {
+            session.closeNow();
+        }
+
+        if (unixSocketPath != null) {
+            Files.deleteIfExists(unixSocketPath);
+        }
+    }
+
+    /**
+     * 接收所有就绪的连接, 按轮询方式分配到I/O线程
+     */
+    void acceptConnections() {
+        while (running) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+                if (channel == null) {
+                    return;
+                }
+            } catch (IOException e) {
+                return;
+            }
+
+            try {
+                if (sessions.size() >= maxConnections) {
+                    channel.close();
+                    continue;
+                }
+                channel.configureBlocking(false);
+                if (address instanceof InetSocketAddress) {
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                }
+
+                IoLoop loop = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                CommandSession session = new CommandSession(++nextSessionId, this, loop, channel,
+                        channel.getRemoteAddress());
+                sessions.put(session.getId(), session);
+                loop.execute(session::register);
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    Object createSender(CommandSession session) {
+        return senderFactory != null ? senderFactory.apply(session) : session;
+    }
+
+    CompletableFuture<CommandResult> execute(String commandLine, Object sender) {
+        return commandFlow.executeAsync(commandLine, sender);
+    }
+
+    void sessionClosed(CommandSession session) {
+        sessions.remove(session.getId());
+        if (closeListener != null) {
+            closeListener.accept(session);
+        }
+    }
+
+    private static ServerSocketChannel openServerChannel(SocketAddress address) throws IOException {
+        if (address instanceof InetSocketAddress) {
+            return ServerSocketChannel.open();
+        }
+        try {
+            ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+            Method open = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+            return (ServerSocketChannel) open.invoke(null, unix);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new UnsupportedOperationException("当前运行时不支持Unix域套接字", e.getCause());
+        } catch (IllegalArgumentException | ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("当前运行时不支持Unix域套接字", e);
+        }
+    }
+
+    /**
+     * 当前运行时是否支持Unix域套接字 (Java 16及以上)
+     */
+    public static boolean isUnixSocketSupported() {
+        try {
+            Class.forName("java.net.UnixDomainSocketAddress");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public static class Builder {
+        private final CommandFlow commandFlow;
+        private SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        private Path unixSocketPath;
+        private int ioThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        private int bufferSize = 8192;
+        private int maxPooledBuffers = 1024;
+        private int maxConnections = 10000;
+        private int maxPipelinedCommands = 16;
+        private long maxPendingWriteBytes = 1024 * 1024;
+        private Function<CommandSession, Object> senderFactory;
+        private Consumer<CommandSession> closeListener;
+
+        public Builder(CommandFlow commandFlow) {
+            this.commandFlow = commandFlow;
+        }
+
+        /**
+         * 监听所有网卡上的端口, 0表示由系统分配; 未设置时仅监听本机回环地址上由系统分配的端口
+         */
+        public Builder bind(int port) {
+            return bind(new InetSocketAddress(port));
+        }
+
+        /**
+         * 监听指定地址, 例如 {@code new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)}
+         */
+        public Builder bind(SocketAddress address) {
+            this.address = address;
+            this.unixSocketPath = null;
+            return this;
+        }
+
+        /**
+         * 监听Unix域套接字, 需要Java 16及以上运行时; 服务器关闭时删除套接字文件
+         */
+        public Builder unixSocket(String path) {
+            try {
+                Class<?> type = Class.forName("java.net.UnixDomainSocketAddress");
+                this.address = (SocketAddress) type.getMethod("of", String.class).invoke(null, path);
+                this.unixSocketPath = Paths.get(path);
+            } catch (ReflectiveOperationException e) {
+                throw new UnsupportedOperationException("当前运行时不支持Unix域套接字", e);
+            }
+            return this;
+        }
+
+        /**
+         * 设置I/O线程数
+         */
+        public Builder ioThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        /**
+         * 设置读写缓冲区大小, 同时也是单行命令的最大字节数
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * 设置每个I/O线程缓存的空闲缓冲区数量
+         */
+        public Builder maxPooledBuffers(int maxPooledBuffers) {
+            this.maxPooledBuffers = maxPooledBuffers;
+            return this;
+        }
+
+        /**
+         * 设置最大连接数, 超出时新连接被直接关闭
+         */
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * 设置单个会话积压的最大命令数, 达到上限时暂停读取该连接
+         */
+        public Builder maxPipelinedCommands(int maxPipelinedCommands) {
+            this.maxPipelinedCommands = maxPipelinedCommands;
+            return this;
+        }
+
+        /**
+         * 设置单个会话未发送结果的最大字节数, 达到上限时暂停读取和执行该连接的命令,
+         * 此时仍有消息需要发送则关闭连接
+         */
+        public Builder maxPendingWriteBytes(long maxPendingWriteBytes) {
+            this.maxPendingWriteBytes = maxPendingWriteBytes;
+            return this;
+        }
+
+        /**
+         * 设置连接建立时创建发送者对象的方法, 默认以会话本身作为发送者
+         */
+        public Builder sender(Function<CommandSession, Object> senderFactory) {
+            this.senderFactory = senderFactory;
+            return this;
+        }
+
+        /**
+         * 设置会话关闭时的回调
+         */
+        public Builder onClose(Consumer<CommandSession> closeListener) {
+            this.closeListener = closeListener;
+            return this;
+        }
+
+        public CommandServer build() throws IOException {
+            if (ioThreads <= 0 || bufferSize <= 0 || maxConnections <= 0 || maxPipelinedCommands <= 0
+                    || maxPendingWriteBytes <= 0) {
+                throw new IllegalArgumentException(
+                        "ioThreads、bufferSize、maxConnections、maxPipelinedCommands和maxPendingWriteBytes必须大于0");
+            }
+            return new CommandServer(this);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package cn.lucas.commandflow.server;
+
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 远程命令会话, 对应一个客户端连接
+ * <p>
+ * 客户端每行发送一条命令, 同一会话的命令按接收顺序逐条执行, 每条命令的结果以一行文本返回.
+ * 结果中的换行、回车与反斜杠分别转义为 {@code \n}、{@code \r} 与 {@code \\}, 客户端按行读取后反转义即可得到完整结果.
+ * 未执行的命令达到上限时暂停读取, 直到积压的命令执行完毕. 未发送的结果达到字节上限时暂停读取和执行,
+ * 客户端一直不读取而仍有消息需要发送时关闭连接.
+ */
+public final class CommandSession {
+    private final long id;
+    private final CommandServer server;
+    private final IoLoop loop;
+    private final SocketChannel channel;
+    private final SocketAddress remoteAddress;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    /**
+     * 在I/O线程注册连接时创建, 命令线程通过 {@link #getSender()} 读取
+     */
+    private volatile Object sender;
+
+    // 以下字段仅由所属I/O线程访问
+    private final ArrayDeque<String> pendingLines = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+    /**
+     * writeQueue中未发送的字节数
+     */
+    private long pendingWriteBytes;
+    private SelectionKey key;
+    private ByteBuffer readBuffer;
+    private boolean executing;
+    private boolean inputClosed;
+    private boolean closeAfterFlush;
+    /**
+     * 单行超出缓冲区时的错误消息, 之前的命令执行完后发送
+     */
+    private String overflowError;
+
+    private volatile boolean open = true;
+
+    CommandSession(long id, CommandServer server, IoLoop loop, SocketChannel channel, SocketAddress remoteAddress) {
+        this.id = id;
+        this.server = server;
+        this.loop = loop;
+        this.channel = channel;
+        this.remoteAddress = remoteAddress;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 获取客户端地址, Unix域套接字的客户端地址可能为匿名地址
+     */
+    public SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * 获取执行命令时传入的发送者对象
+     */
+    public Object getSender() {
+        return sender;
+    }
+
+    public Object getAttribute(String key) {
+        return attributes.get(key);
+    }
+
+    public void setAttribute(String key, Object value) {
+        attributes.put(key, value);
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * 向客户端发送一条消息, 消息中的换行被转义, 可在任意线程调用
+     */
+    public void send(String message) {
+        loop.execute(() -> write(message));
+    }
+
+    /**
+     * 发送完已排队的消息后关闭连接, 可在任意线程调用
+     */
+    public void close() {
+        loop.execute(() -> {
+            inputClosed = true;
+            pendingLines.clear();
+            overflowError = null;
+            closeAfterFlush = true;
+            updateInterest();
+            if (writeQueue.isEmpty()) {
+                closeNow();
+            }
+        });
+    }
+
+    void register() {
+        if (!open) {
+            return;
+        }
+        try {
+            key = channel.register(loop.selector(), SelectionKey.OP_READ, this);
+            sender = server.createSender(this);
+        } catch (IOException | RuntimeException e) {
+            closeNow();
+        }
+    }
+
+    void onReadable() {
+        if (readBuffer == null) {
+            readBuffer = loop.acquireBuffer();
+        }
+
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            closeNow();
+            return;
+        }
+        if (read < 0) {
+            inputClosed = true;
+        }
+
+        frameLines();
+        updateInterest();
+        dispatchNext();
+    }
+
+    void onWritable() {
+        flush();
+    }
+
+    /**
+     * 从读缓冲区中切分出完整的行, 剩余的半行保留在缓冲区开头, 输入结束时作为最后一行; 缓冲区为空时归还到池中
+     */
+    private void frameLines() {
+        ByteBuffer buffer = readBuffer;
+        ((Buffer) buffer).flip();
+        int start = buffer.position();
+        int limit = buffer.limit();
+        for (int i = start; i < limit; i++) {
+            if (buffer.get(i) != '\n') {
+                continue;
+            }
+            int end = i > start && buffer.get(i - 1) == '\r' ? i - 1 : i;
+            String line = loop.decode(buffer, start, end).trim();
+            if (!line.isEmpty()) {
+                pendingLines.add(line);
+            }
+            start = i + 1;
+        }
+        if (inputClosed && start < limit) {
+            // 输入已结束, 最后一行没有换行符时同样执行
+            int end = buffer.get(limit - 1) == '\r' ? limit - 1 : limit;
+            String line = loop.decode(buffer, start, end).trim();
+            if (!line.isEmpty()) {
+                pendingLines.add(line);
+            }
+            start = limit;
+        }
+        ((Buffer) buffer).position(start);
+        buffer.compact();
+
+        if (!buffer.hasRemaining()) {
+            overflowError = CommandResult.syntaxError("命令过长, 单行最多 " + buffer.capacity() + " 字节").toString();
+            inputClosed = true;
+            ((Buffer) buffer).clear();
+        }
+        if (buffer.position() == 0) {
+            loop.releaseBuffer(buffer);
+            readBuffer = null;
+        }
+    }
+
+    private void dispatchNext() {
+        if (executing || !open || isWriteBlocked()) {
+            return;
+        }
+
+        String line = pendingLines.poll();
+        if (line == null) {
+            if (inputClosed) {
+                if (overflowError != null) {
+                    write(overflowError);
+                    overflowError = null;
+                }
+                closeAfterFlush = true;
+                if (writeQueue.isEmpty()) {
+                    closeNow();
+                }
+            }
+            return;
+        }
+
+        executing = true;
+        updateInterest();
+        server.execute(line, sender).whenComplete((result, error) -> loop.execute(() -> complete(result, error)));
+    }
+
+    private void complete(CommandResult result, Throwable error) {
+        executing = false;
+        if (!open) {
+            return;
+        }
+        if (result == null) {
+            result = CommandResult.error("命令执行错误: " + error.getMessage());
+        }
+        write(result.toString());
+        updateInterest();
+        dispatchNext();
+    }
+
+    private void write(String message) {
+        if (!open) {
+            return;
+        }
+
+        if (isWriteBlocked()) {
+            // 未发送的消息已达上限而客户端仍未读取
+            closeNow();
+            return;
+        }
+
+        byte[] bytes = (escape(message) + "\n").getBytes(StandardCharsets.UTF_8);
+        pendingWriteBytes += bytes.length;
+        int offset = 0;
+        while (offset < bytes.length) {
+            ByteBuffer buffer = loop.acquireBuffer();
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            ((Buffer) buffer).flip();
+            writeQueue.add(buffer);
+            offset += length;
+        }
+        flush();
+    }
+
+    /**
+     * 转义换行、回车与反斜杠, 保证每条消息只占一行
+     */
+    private static String escape(String message) {
+        int i = 0;
+        int length = message.length();
+        while (i < length) {
+            char c = message.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\\') {
+                break;
+            }
+            i++;
+        }
+        if (i == length) {
+            return message;
+        }
+
+        StringBuilder sb = new StringBuilder(length + 16).append(message, 0, i);
+        for (; i < length; i++) {
+            char c = message.charAt(i);
+            if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (c == '\\') {
+                sb.append("\\\\");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private void flush() {
+        boolean blocked = isWriteBlocked();
+        boolean drained = true;
+        try {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    drained = false;
+                    break;
+                }
+                writeQueue.poll();
+                pendingWriteBytes -= buffer.limit();
+                loop.releaseBuffer(buffer);
+            }
+        } catch (IOException e) {
+            closeNow();
+            return;
+        }
+
+        setInterest(SelectionKey.OP_WRITE, !drained);
+        if (blocked && !isWriteBlocked()) {
+            // 积压的消息已降到上限以下, 恢复读取和执行
+            updateInterest();
+            dispatchNext();
+        }
+        if (drained && closeAfterFlush && !executing) {
+            closeNow();
+        }
+    }
+
+    /**
+     * 输入未结束、积压的命令和未发送的字节均未达到上限时继续读取
+     */
+    private void updateInterest() {
+        setInterest(SelectionKey.OP_READ, !inputClosed && !isWriteBlocked()
+                && pendingLines.size() < server.getMaxPipelinedCommands());
+    }
+
+    private boolean isWriteBlocked() {
+        return pendingWriteBytes >= server.getMaxPendingWriteBytes();
+    }
+
+    private void setInterest(int op, boolean enabled) {
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        int ops = key.interestOps();
+        int updated = enabled ? ops | op : ops & ~op;
+        if (updated != ops) {
+            key.interestOps(updated);
+        }
+    }
+
+    /**
+     * 立即关闭连接并归还缓冲区, 仅在I/O线程调用
+     */
+    void closeNow() {
+        if (!open) {
+            return;
+        }
+        open = false;
+
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+
+        if (readBuffer != null) {
+            loop.releaseBuffer(readBuffer);
+            readBuffer = null;
+        }
+        ByteBuffer buffer;
+        while ((buffer = writeQueue.poll()) != null) {
+            loop.releaseBuffer(buffer);
+        }
+        pendingLines.clear();
+        server.sessionClosed(this);
+    }
+
+    @Override
+    public String toString() {
+        return "CommandSession{" +
+                "id=" + id +
+                ", remoteAddress=" + remoteAddress +
+                '}';
+    }
+}
@@ -0,0 +1,162 @@
+package cn.lucas.commandflow.server;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单个I/O线程的事件循环, 负责其上所有会话的读写, 其他线程通过 {@link #execute(Runnable)} 提交任务
+ */
+final class IoLoop implements Runnable {
+    private final CommandServer server;
+    private final Selector selector;
+    private final BufferPool bufferPool;
+    /**
+     * 解码一行命令时使用的临时数组, 一行最长不超过一个缓冲区
+     */
+    private final byte[] lineBytes;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakenUp = new AtomicBoolean();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    IoLoop(CommandServer server, String name, int bufferSize, int maxPooledBuffers) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.bufferPool = new BufferPool(bufferSize, maxPooledBuffers);
+        this.lineBytes = new byte[bufferSize];
+        this.thread = new Thread(this, name);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    Selector selector() {
+        return selector;
+    }
+
+    ByteBuffer acquireBuffer() {
+        return bufferPool.acquire();
+    }
+
+    void releaseBuffer(ByteBuffer buffer) {
+        bufferPool.release(buffer);
+    }
+
+    /**
+     * 将缓冲区中 [start, end) 的字节解码为字符串, 调用后缓冲区位置移动到end
+     */
+    String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        ((Buffer) buffer).position(start);
+        buffer.get(lineBytes, 0, length);
+        return new String(lineBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 在I/O线程中执行任务
+     */
+    void execute(Runnable task) {
+        tasks.offer(task);
+        if (Thread.currentThread() != thread && wakenUp.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    void join() throws InterruptedException {
+        if (!inLoop()) {
+            thread.join();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                wakenUp.set(false);
+                if (tasks.isEmpty()) {
+                    selector.select();
+                } else {
+                    selector.selectNow();
+                }
+                processSelectedKeys();
+                runTasks();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+
+            Object attachment = key.attachment();
+            if (!(attachment instanceof CommandSession)) {
+                server.acceptConnections();
+                continue;
+            }
+
+            CommandSession session = (CommandSession) attachment;
+            try {
+                if (key.isReadable()) {
+                    session.onReadable();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    session.onWritable();
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                session.closeNow();
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void closeAll() {
+        runTasks();
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof CommandSession) {
+                ((CommandSession) key.attachment()).closeNow();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package cn.lucas.commandflow.stats;
+
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个命令的执行统计
+ */
+public class CommandStats {
+    private static final CommandResult.Status[] STATUSES = CommandResult.Status.values();
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder[] statusCounts = new LongAdder[STATUSES.length];
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public CommandStats() {
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次命令执行
+     *
+     * @param status 执行结果状态
+     * @param nanos  执行耗时 (纳秒)
+     */
+    public void record(CommandResult.Status status, long nanos) {
+        invocations.increment();
+        statusCounts[status.ordinal()].increment();
+        latency.record(nanos);
+    }
+
+    /**
+     * 记录一次未执行命令方法的请求, 例如权限不足
+     */
+    public void recordRejected(CommandResult.Status status) {
+        invocations.increment();
+        statusCounts[status.ordinal()].increment();
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    public long getCount(CommandResult.Status status) {
+        return statusCounts[status.ordinal()].sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 获取统计快照
+     */
+    public Snapshot snapshot() {
+        Map<CommandResult.Status, Long> counts = new EnumMap<>(CommandResult.Status.class);
+        for (CommandResult.Status status : STATUSES) {
+            counts.put(status, getCount(status));
+        }
+        long[] percentiles = latency.percentiles(0.5, 0.99, 0.999);
+        return new Snapshot(getInvocations(), counts, latency.getMean(), latency.getMax(),
+                percentiles[0], percentiles[1], percentiles[2]);
+    }
+
+    /**
+     * 统计快照, 延迟单位为纳秒
+     */
+    public static class Snapshot {
+        private final long invocations;
+        private final Map<CommandResult.Status, Long> statusCounts;
+        private final double mean;
+        private final long max;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+
+        Snapshot(long invocations, Map<CommandResult.Status, Long> statusCounts, double mean, long max,
+                 long p50, long p99, long p999) {
+            this.invocations = invocations;
+            this.statusCounts = Collections.unmodifiableMap(statusCounts);
+            this.mean = mean;
+            this.max = max;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        public long getCount(CommandResult.Status status) {
+            Long count = statusCounts.get(status);
+            return count != null ? count : 0;
+        }
+
+        public Map<CommandResult.Status, Long> getStatusCounts() {
+            return statusCounts;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "invocations=" + invocations +
+                    ", statusCounts=" + statusCounts +
+                    ", p50=" + p50 +
+                    ", p99=" + p99 +
+                    ", p999=" + p999 +
+                    '}';
+        }
+    }
+}
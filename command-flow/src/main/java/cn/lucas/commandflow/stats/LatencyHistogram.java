@@ -0,0 +1,130 @@
+package cn.lucas.commandflow.stats;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟直方图
+ * <p>
+ * 按对数分桶记录纳秒延迟, 每个2的幂区间再细分为4个子桶, 百分位结果取桶上界, 相对误差不超过25%.
+ * 每个桶使用 {@link LongAdder} 计数, 高并发记录时不会争用同一个计数器.
+ * 桶数组在第一次记录时创建, 从未执行过的命令不占用额外内存.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private static final AtomicReferenceFieldUpdater<LatencyHistogram, LongAdder[]> BUCKETS =
+            AtomicReferenceFieldUpdater.newUpdater(LatencyHistogram.class, LongAdder[].class, "buckets");
+
+    private volatile LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 记录一次延迟
+     *
+     * @param nanos 纳秒
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        LongAdder[] current = buckets;
+        if (current == null) {
+            current = initBuckets();
+        }
+        current[bucketIndex(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    private LongAdder[] initBuckets() {
+        LongAdder[] created = new LongAdder[BUCKET_COUNT];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new LongAdder();
+        }
+        return BUCKETS.compareAndSet(this, null, created) ? created : buckets;
+    }
+
+    static int bucketIndex(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (msb < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int shift = msb - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * 桶内取值的上界
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 平均延迟 (纳秒)
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * 最大延迟 (纳秒)
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 计算百分位延迟
+     *
+     * @param quantiles 百分位, 取值范围 (0, 1]
+     * @return 与参数顺序一致的延迟上界 (纳秒)
+     */
+    public long[] percentiles(double... quantiles) {
+        long[] result = new long[quantiles.length];
+        LongAdder[] current = buckets;
+        if (current == null) {
+            return result;
+        }
+
+        long[] counts = new long[current.length];
+        long total = 0;
+        for (int i = 0; i < current.length; i++) {
+            counts[i] = current[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return result;
+        }
+
+        long maxValue = max.get();
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = (long) Math.ceil(quantiles[q] * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    result[q] = Math.min(bucketUpperBound(i), maxValue);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package cn.lucas.commandflow.stats;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.annotation.Command;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandResult;
+
+import java.util.Map;
+
+/**
+ * 内置统计命令
+ * <p>
+ * 使用方式: {@code commandFlow.registerHandler(new StatsCommands(commandFlow))}
+ */
+public class StatsCommands {
+    private final CommandFlow commandFlow;
+
+    public StatsCommands(CommandFlow commandFlow) {
+        this.commandFlow = commandFlow;
+    }
+
+    @Command(
+            name = "stats",
+            description = "显示命令执行统计",
+            category = "SYSTEM",
+            usage = "stats [命令路径...]"
+    )
+    public CommandResult stats(CommandContext context) {
+        String filter = String.join(" ", context.getArgs()).toLowerCase();
+        // 只匹配命令本身及其子命令, "stats todo" 不包含 "todolist"
+        String subCommandPrefix = filter + " ";
+        Map<String, CommandStats.Snapshot> stats = commandFlow.getStats();
+
+        StringBuilder sb = new StringBuilder("命令统计 (延迟单位: 毫秒):\n");
+        sb.append(String.format("%-20s %10s %8s %8s %8s %8s %8s %10s %10s %10s%n",
+                "命令", "调用", "错误", "无权限", "语法", "限流", "超时", "p50", "p99", "p999"));
+        for (Map.Entry<String, CommandStats.Snapshot> entry : stats.entrySet()) {
+            CommandStats.Snapshot snapshot = entry.getValue();
+            String path = entry.getKey();
+            boolean matches = filter.isEmpty() || path.equals(filter) || path.startsWith(subCommandPrefix);
+            if (!matches || (filter.isEmpty() && snapshot.getInvocations() == 0)) {
+                continue;
+            }
+            sb.append(String.format("%-20s %10d %8d %8d %8d %8d %8d %10.3f %10.3f %10.3f%n",
+                    path,
+                    snapshot.getInvocations(),
+                    snapshot.getCount(CommandResult.Status.ERROR),
+                    snapshot.getCount(CommandResult.Status.PERMISSION_DENIED),
+                    snapshot.getCount(CommandResult.Status.SYNTAX_ERROR),
+                    snapshot.getCount(CommandResult.Status.THROTTLED),
+                    snapshot.getCount(CommandResult.Status.TIMEOUT),
+                    snapshot.getP50() / 1e6,
+                    snapshot.getP99() / 1e6,
+                    snapshot.getP999() / 1e6));
+        }
+
+        return CommandResult.success(sb.toString(), stats);
+    }
+}
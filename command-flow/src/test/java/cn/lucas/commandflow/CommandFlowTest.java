@@ -0,0 +1,23 @@
+package cn.lucas.commandflow;
+
+import cn.lucas.commandflow.model.CommandResult;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CommandFlowTest {
+
+    @Test
+    public void unknownCommandOnEmptyRegistry() throws Exception {
+        CommandFlow commandFlow = new CommandFlow();
+        try {
+            CommandResult result = commandFlow.execute("hello");
+            assertEquals(CommandResult.Status.ERROR, result.getStatus());
+            assertEquals("未知命令: hello", result.getMessage());
+
+            assertEquals("未知命令: hello", commandFlow.executeAsync("hello").get().getMessage());
+        } finally {
+            commandFlow.stop();
+        }
+    }
+}
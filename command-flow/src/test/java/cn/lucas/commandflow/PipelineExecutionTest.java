@@ -0,0 +1,172 @@
+package cn.lucas.commandflow;
+
+import cn.lucas.commandflow.annotation.Command;
+import cn.lucas.commandflow.executor.ExecutionLanes;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineExecutionTest {
+    private CommandFlow commandFlow;
+    private PipeCommands commands;
+
+    @Before
+    public void setUp() {
+        commandFlow = new CommandFlow();
+        commands = new PipeCommands(commandFlow);
+        commandFlow.registerHandler(commands);
+    }
+
+    @After
+    public void tearDown() {
+        commandFlow.stop();
+    }
+
+    @Test
+    public void andSkipsAfterFailureAndOrSkipsAfterSuccess() {
+        CommandResult result = commandFlow.execute("fail && ok");
+        assertFalse(result.isSuccess());
+        assertEquals(0, commands.okCount.get());
+
+        result = commandFlow.execute("ok || fail");
+        assertTrue(result.isSuccess());
+        assertEquals(1, commands.okCount.get());
+        assertEquals(0, commands.failCount.get() - 1);
+
+        result = commandFlow.execute("fail || ok ; ok");
+        assertTrue(result.isSuccess());
+        assertEquals("fail\nok\nok", result.getMessage());
+        assertEquals(3, commands.okCount.get());
+    }
+
+    @Test(timeout = 10000)
+    public void emittedElementsStreamToDownstream() {
+        assertEquals("45", commandFlow.execute("range 10 | sum").getMessage());
+    }
+
+    @Test(timeout = 10000)
+    public void downstreamReadsUpstreamDataWhenNothingIsEmitted() {
+        assertEquals("6", commandFlow.execute("numbers | sum").getMessage());
+    }
+
+    @Test(timeout = 10000)
+    public void downstreamStoppingEarlyCancelsAnEndlessUpstream() {
+        CommandResult result = commandFlow.execute("endless | head 3");
+
+        assertTrue(result.isSuccess());
+        assertEquals("[0, 1, 2]", result.getMessage());
+    }
+
+    @Test(timeout = 10000)
+    public void upstreamFailureIsReported() {
+        CommandResult result = commandFlow.execute("fail | sum");
+
+        assertFalse(result.isSuccess());
+        assertEquals("fail", result.getMessage());
+    }
+
+    /**
+     * 串行命令中执行的管道包含当前邮箱的命令时在当前线程依次执行, 上游命令不会在管道线程中等待调用者持有的邮箱
+     */
+    @Test(timeout = 10000)
+    public void pipelineInsideTheLaneItUsesDoesNotDeadlock() {
+        commandFlow.setExecutionLanes(ExecutionLanes.createDefault(ExecutionLanes.Mode.HANDLER));
+
+        assertEquals("3", commandFlow.execute("nested").getMessage());
+        assertEquals("3", commandFlow.executeAsync("nested").join().getMessage());
+    }
+
+    @Test(timeout = 30000)
+    public void sequentialPipelineBuffersBoundedOutput() {
+        commandFlow.setExecutionLanes(ExecutionLanes.createDefault(ExecutionLanes.Mode.HANDLER));
+
+        CommandResult result = commandFlow.execute("nestedEndless");
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getMessage(), result.getMessage().contains("管道缓冲区已满"));
+    }
+
+    public static class PipeCommands {
+        private final CommandFlow commandFlow;
+        private final AtomicInteger okCount = new AtomicInteger();
+        private final AtomicInteger failCount = new AtomicInteger();
+
+        public PipeCommands(CommandFlow commandFlow) {
+            this.commandFlow = commandFlow;
+        }
+
+        @Command(name = "ok")
+        public CommandResult ok() {
+            okCount.incrementAndGet();
+            return CommandResult.success("ok");
+        }
+
+        @Command(name = "fail")
+        public CommandResult fail() {
+            failCount.incrementAndGet();
+            return CommandResult.error("fail");
+        }
+
+        @Command(name = "range")
+        public CommandResult range(CommandContext context) {
+            int count = context.getArgAsInt(0, 0);
+            for (int i = 0; i < count; i++) {
+                context.emit(i);
+            }
+            return CommandResult.success();
+        }
+
+        @Command(name = "numbers")
+        public CommandResult numbers() {
+            return CommandResult.success("", Arrays.asList(1, 2, 3));
+        }
+
+        @Command(name = "endless")
+        public CommandResult endless(CommandContext context) {
+            for (int i = 0; ; i++) {
+                context.emit(i);
+            }
+        }
+
+        @Command(name = "sum")
+        public CommandResult sum(CommandContext context) {
+            int sum = context.streamInput().mapToInt(element -> (Integer) element).sum();
+            return CommandResult.success(String.valueOf(sum));
+        }
+
+        @Command(name = "head")
+        public CommandResult head(CommandContext context) {
+            Object[] first = context.streamInput().limit(context.getArgAsInt(0, 1)).toArray();
+            return CommandResult.success(Arrays.toString(first));
+        }
+
+        @Command(name = "srange", parallel = false)
+        public CommandResult serialRange(CommandContext context) {
+            return range(context);
+        }
+
+        @Command(name = "sendless", parallel = false)
+        public CommandResult serialEndless(CommandContext context) {
+            return endless(context);
+        }
+
+        @Command(name = "nested", parallel = false)
+        public CommandResult nested() {
+            return commandFlow.execute("srange 3 | sum");
+        }
+
+        @Command(name = "nestedEndless", parallel = false)
+        public CommandResult nestedEndless() {
+            return commandFlow.execute("sendless | head 3");
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package cn.lucas.commandflow.cache;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.annotation.Command;
+import cn.lucas.commandflow.model.CommandInfo;
+import cn.lucas.commandflow.model.CommandResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResultCacheTest {
+    private static final Object HANDLER = new Object();
+
+    @Test(timeout = 10000)
+    public void concurrentMissesLoadOnce() throws Exception {
+        ResultCache cache = new ResultCache();
+        CommandInfo command = command("slow", 60000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CommandResult loaded = CommandResult.success("done");
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            Future<CommandResult> first = executor.submit(() -> cache.get(command, new String[]{"a"}, null, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return loaded;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            List<Future<CommandResult>> waiters = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                waiters.add(executor.submit(() -> cache.get(command, new String[]{"a"}, null, () -> {
+                    loads.incrementAndGet();
+                    return CommandResult.success("duplicate");
+                })));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            assertSame(loaded, first.get());
+            for (Future<CommandResult> waiter : waiters) {
+                assertSame(loaded, waiter.get());
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(4, cache.getHitCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void entriesExpireAfterTtl() throws Exception {
+        ResultCache cache = new ResultCache();
+        CommandInfo command = command("ttl", 30);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(command, new String[0], null, () -> counted(loads));
+        cache.get(command, new String[0], null, () -> counted(loads));
+        assertEquals(1, loads.get());
+
+        Thread.sleep(60);
+        cache.get(command, new String[0], null, () -> counted(loads));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void failedResultsAreNotCached() {
+        ResultCache cache = new ResultCache();
+        CommandInfo command = command("fail", 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.get(command, new String[0], null, () -> {
+                loads.incrementAndGet();
+                return CommandResult.error("fail");
+            });
+        }
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void argumentsAndSenderArePartOfTheKey() {
+        ResultCache cache = new ResultCache();
+        CommandInfo command = command("key", 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(command, new String[]{"a"}, null, () -> counted(loads));
+        cache.get(command, new String[]{"b"}, null, () -> counted(loads));
+        cache.get(command, new String[]{"a"}, "alice", () -> counted(loads));
+        cache.get(command, new String[]{"a"}, "alice", () -> counted(loads));
+
+        assertEquals(3, loads.get());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() {
+        ResultCache cache = new ResultCache(1);
+        CommandInfo command = command("lru", 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(command, new String[]{"a"}, null, () -> counted(loads));
+        cache.get(command, new String[]{"b"}, null, () -> counted(loads));
+        cache.get(command, new String[]{"a"}, null, () -> counted(loads));
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.size());
+
+        ResultCache bounded = new ResultCache(32);
+        for (int i = 0; i < 500; i++) {
+            bounded.get(command, new String[]{String.valueOf(i)}, null, () -> counted(loads));
+        }
+        assertTrue(bounded.size() <= 32);
+    }
+
+    @Test
+    public void invalidateRemovesOnlyTheHandlersEntries() {
+        ResultCache cache = new ResultCache();
+        Object other = new Object();
+        CommandInfo mine = command("mine", 60000);
+        CommandInfo theirs = new CommandInfo.Builder().name("theirs").handler(other).cacheTtl(60000).build();
+
+        cache.get(mine, new String[0], null, CommandResult::success);
+        cache.get(theirs, new String[0], null, CommandResult::success);
+        cache.invalidate(HANDLER);
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void reloadingAHandlerInvalidatesItsCachedResults() {
+        CommandFlow commandFlow = new CommandFlow();
+        try {
+            CachedCommands previous = new CachedCommands();
+            commandFlow.registerHandler(previous);
+            commandFlow.execute("cached");
+            commandFlow.execute("cached");
+            assertEquals(1, previous.calls.get());
+            assertEquals(1, commandFlow.getResultCache().size());
+
+            CachedCommands replacement = new CachedCommands();
+            commandFlow.reloadHandler(previous, replacement);
+            assertEquals(0, commandFlow.getResultCache().size());
+
+            commandFlow.execute("cached");
+            assertEquals(1, replacement.calls.get());
+        } finally {
+            commandFlow.stop();
+        }
+    }
+
+    private static CommandInfo command(String name, long ttl) {
+        return new CommandInfo.Builder().name(name).handler(HANDLER).cacheTtl(ttl).build();
+    }
+
+    private static CommandResult counted(AtomicInteger loads) {
+        return CommandResult.success(String.valueOf(loads.incrementAndGet()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class CachedCommands {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Command(name = "cached", cacheTtl = 60000)
+        public CommandResult cached() {
+            return CommandResult.success(String.valueOf(calls.incrementAndGet()));
+        }
+    }
+}
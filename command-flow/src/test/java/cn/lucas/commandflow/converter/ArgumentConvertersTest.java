@@ -0,0 +1,63 @@
+package cn.lucas.commandflow.converter;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ArgumentConvertersTest {
+    private final ArgumentConverters converters = new ArgumentConverters();
+
+    @Test
+    public void longAcceptsTheFullRange() {
+        assertEquals(Long.valueOf(Long.MIN_VALUE), toLong("-9223372036854775808"));
+        assertEquals(Long.valueOf(Long.MIN_VALUE), toLong("-0009223372036854775808"));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), toLong("9223372036854775807"));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), toLong("+9223372036854775807"));
+        assertEquals(Long.valueOf(0), toLong("-0"));
+        assertEquals(Long.valueOf(-42), toLong("-42"));
+    }
+
+    @Test
+    public void longRejectsOverflowAndGarbage() {
+        assertNull(toLong("9223372036854775808"));
+        assertNull(toLong("+9223372036854775808"));
+        assertNull(toLong("-9223372036854775809"));
+        assertNull(toLong("-19223372036854775808"));
+        assertNull(toLong(""));
+        assertNull(toLong("-"));
+        assertNull(toLong("12a"));
+        assertNull(toLong("1.0"));
+    }
+
+    @Test
+    public void intRejectsValuesOutsideItsRange() {
+        ArgumentConverter<Integer> converter = converters.find(int.class);
+
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), converter.convert("-2147483648", null));
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), converter.convert("2147483647", null));
+        assertNull(converter.convert("2147483648", null));
+        assertNull(converter.convert("-9223372036854775808", null));
+    }
+
+    @Test
+    public void decimalsAndBooleans() {
+        assertEquals(Double.valueOf(-1.5e3), converters.find(double.class).convert("-1.5e3", null));
+        assertNull(converters.find(double.class).convert("1e", null));
+        assertNull(converters.find(double.class).convert("NaN", null));
+        assertEquals(Boolean.TRUE, converters.find(boolean.class).convert("Yes", null));
+        assertNull(converters.find(boolean.class).convert("maybe", null));
+    }
+
+    @Test
+    public void enumsMatchIgnoringCase() {
+        assertEquals(TimeUnit.SECONDS, converters.find(TimeUnit.class).convert("seconds", null));
+        assertNull(converters.find(TimeUnit.class).convert("fortnights", null));
+    }
+
+    private Long toLong(String input) {
+        return converters.find(long.class).convert(input, null);
+    }
+}
@@ -0,0 +1,102 @@
+package cn.lucas.commandflow.executor;
+
+import cn.lucas.commandflow.model.CommandResult;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncCommandExecutorTest {
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        pool.shutdownNow();
+    }
+
+    @Test(timeout = 10000)
+    public void callerRunsFailureCompletesTheFutureExceptionally() throws Exception {
+        AsyncCommandExecutor executor = new AsyncCommandExecutor(pool, 1, RejectionPolicy.CALLER_RUNS);
+        occupy(executor);
+
+        IllegalStateException failure = new IllegalStateException("boom");
+        CompletableFuture<CommandResult> future = executor.submit(() -> {
+            throw failure;
+        });
+
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.join();
+            fail();
+        } catch (CompletionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void callerRunsExecutesOnTheCallingThread() throws Exception {
+        AsyncCommandExecutor executor = new AsyncCommandExecutor(pool, 1, RejectionPolicy.CALLER_RUNS);
+        occupy(executor);
+
+        Thread caller = Thread.currentThread();
+        CommandResult result = executor.submit(
+                () -> CommandResult.success(String.valueOf(Thread.currentThread() == caller))).get();
+        assertEquals("true", result.getMessage());
+    }
+
+    @Test(timeout = 10000)
+    public void abortReturnsQueueFullResult() throws Exception {
+        AsyncCommandExecutor executor = new AsyncCommandExecutor(pool, 1, RejectionPolicy.ABORT);
+        occupy(executor);
+
+        CommandResult result = executor.submit(CommandResult::success).get();
+        assertEquals(CommandResult.Status.ERROR, result.getStatus());
+        assertEquals(1, executor.getPendingCount());
+    }
+
+    @Test(timeout = 10000)
+    public void pooledFailureCompletesTheFutureExceptionally() throws Exception {
+        AsyncCommandExecutor executor = new AsyncCommandExecutor(pool, 1, RejectionPolicy.ABORT);
+
+        CompletableFuture<CommandResult> future = executor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(0, executor.getPendingCount());
+    }
+
+    /**
+     * 占用唯一的许可, 之后提交的任务按拒绝策略处理
+     */
+    private void occupy(AsyncCommandExecutor executor) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return CommandResult.success();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,238 @@
+package cn.lucas.commandflow.executor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ExecutionLanesTest {
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+        callers.shutdownNow();
+    }
+
+    @Test(timeout = 30000)
+    public void tasksOfAKeyRunInSubmissionOrder() throws Exception {
+        ExecutionLanes lanes = new ExecutionLanes(ExecutionLanes.Mode.SENDER, pool, 100000);
+        int keys = 8;
+        int perKey = 2000;
+        Map<Integer, List<Integer>> executed = new ConcurrentHashMap<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < perKey; i++) {
+            for (int key = 0; key < keys; key++) {
+                int k = key;
+                int sequence = i;
+                // 同一个键的任务只会被一个线程执行, 不需要同步的列表
+                futures.add(lanes.submit(k, () -> {
+                    executed.computeIfAbsent(k, unused -> new ArrayList<>()).add(sequence);
+                    return sequence;
+                }));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(20, TimeUnit.SECONDS);
+
+        for (int key = 0; key < keys; key++) {
+            List<Integer> sequence = executed.get(key);
+            assertEquals(perKey, sequence.size());
+            for (int i = 0; i < perKey; i++) {
+                assertEquals(i, (int) sequence.get(i));
+            }
+        }
+        waitForRetirement(lanes);
+    }
+
+    /**
+     * submit与call混合并发时, 同一个键任一时刻最多一个任务在执行, 且每个任务都执行一次
+     */
+    @Test(timeout = 60000)
+    public void atMostOneThreadPerKeyUnderConcurrentSubmitAndCall() throws Exception {
+        ExecutionLanes lanes = new ExecutionLanes(ExecutionLanes.Mode.SENDER, pool, 100000);
+        int keys = 3;
+        int rounds = 3000;
+        AtomicInteger[] running = new AtomicInteger[keys];
+        for (int key = 0; key < keys; key++) {
+            running[key] = new AtomicInteger();
+        }
+        AtomicBoolean overlap = new AtomicBoolean();
+        AtomicInteger completed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            workers.add(callers.submit(() -> {
+                start.await();
+                List<CompletableFuture<Object>> submitted = new ArrayList<>();
+                for (int i = 0; i < rounds; i++) {
+                    int key = (thread + i) % keys;
+                    Supplier<Object> task = () -> {
+                        if (running[key].incrementAndGet() != 1) {
+                            overlap.set(true);
+                        }
+                        Thread.yield();
+                        running[key].decrementAndGet();
+                        completed.incrementAndGet();
+                        return null;
+                    };
+                    if (i % 2 == 0) {
+                        lanes.call(key, task);
+                    } else {
+                        submitted.add(lanes.submit(key, task));
+                    }
+                }
+                for (CompletableFuture<Object> future : submitted) {
+                    future.join();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(50, TimeUnit.SECONDS);
+        }
+
+        assertFalse(overlap.get());
+        assertEquals(8 * rounds, completed.get());
+        waitForRetirement(lanes);
+    }
+
+    /**
+     * 邮箱清空移除与新任务放入竞争时, 新任务不会丢失在已移除的邮箱中
+     */
+    @Test(timeout = 60000)
+    public void retirementRacingWithNewTasksLosesNothing() throws Exception {
+        ExecutionLanes lanes = new ExecutionLanes(ExecutionLanes.Mode.SENDER, pool, 16);
+        Object key = "hot";
+        int attempts = 20000;
+        AtomicInteger executed = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            workers.add(callers.submit(() -> {
+                for (int i = 0; i < attempts; i++) {
+                    // 每个任务单独执行, 邮箱频繁地清空、移除与重新创建
+                    if ((thread + i) % 2 == 0) {
+                        lanes.call(key, executed::incrementAndGet);
+                    } else {
+                        CompletableFuture<Integer> future = lanes.submit(key, executed::incrementAndGet);
+                        try {
+                            future.get(10, TimeUnit.SECONDS);
+                        } catch (ExecutionException e) {
+                            throw new AssertionError(e.getCause());
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(50, TimeUnit.SECONDS);
+        }
+
+        assertEquals(4 * attempts, executed.get());
+        waitForRetirement(lanes);
+    }
+
+    @Test(timeout = 10000)
+    public void reentrantCallFromADrainedTaskRunsInline() throws Exception {
+        ExecutionLanes lanes = new ExecutionLanes(ExecutionLanes.Mode.SENDER, pool, 16);
+
+        CompletableFuture<String> viaPool = lanes.submit("a", () -> {
+            assertTrue(lanes.isDraining("a"));
+            Thread outer = Thread.currentThread();
+            // 嵌套调用其他邮箱后再回到外层邮箱, 外层邮箱仍由当前线程持有
+            return lanes.call("b", () -> lanes.call("a", () -> Thread.currentThread() == outer ? "inline" : "other"));
+        });
+        assertEquals("inline", viaPool.get(5, TimeUnit.SECONDS));
+
+        String viaCall = lanes.call("a", () -> lanes.call("a", () -> "nested"));
+        assertEquals("nested", viaCall);
+        assertFalse(lanes.isDraining("a"));
+        waitForRetirement(lanes);
+    }
+
+    @Test(timeout = 10000)
+    public void fullMailboxRejectsNewTasks() throws Exception {
+        ExecutionLanes lanes = new ExecutionLanes(ExecutionLanes.Mode.SENDER, pool, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> blocker = lanes.submit("k", () -> {
+            started.countDown();
+            await(release);
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = lanes.submit("k", () -> 1);
+
+        CompletableFuture<Integer> rejected = lanes.submit("k", () -> 2);
+        assertTrue(rejected.isCompletedExceptionally());
+        try {
+            rejected.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        try {
+            lanes.call("k", () -> 3);
+            fail();
+        } catch (RejectedExecutionException expected) {
+        }
+        // 其他邮箱不受影响
+        assertEquals(Integer.valueOf(4), lanes.call("other", () -> 4));
+
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        assertEquals(Integer.valueOf(1), queued.get(5, TimeUnit.SECONDS));
+        waitForRetirement(lanes);
+    }
+
+    @Test(timeout = 10000)
+    public void tasksSubmittedAfterShutdownStillRun() throws Exception {
+        ExecutorService own = Executors.newSingleThreadExecutor();
+        ExecutionLanes lanes = new ExecutionLanes(ExecutionLanes.Mode.SENDER, own, 16);
+        own.shutdown();
+
+        assertEquals(Integer.valueOf(1), lanes.submit("k", () -> 1).get(5, TimeUnit.SECONDS));
+        assertEquals(0, lanes.getActiveLaneCount());
+    }
+
+    private static void waitForRetirement(ExecutionLanes lanes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lanes.getActiveLaneCount() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, lanes.getActiveLaneCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package cn.lucas.commandflow.index;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class NameTrieTest {
+
+    @Test
+    public void searchOnEmptyTrieReturnsNothing() {
+        NameTrie<String> trie = NameTrie.build(Collections.<String, String>emptyMap());
+
+        assertEquals(Collections.emptyList(), trie.search("hello", 2, 5));
+        assertEquals(Collections.emptyList(), trie.search("", 2, 5));
+    }
+
+    @Test
+    public void searchOnSingleName() {
+        NameTrie<String> trie = build("help");
+
+        assertEquals(Collections.singletonList("help"), trie.search("hepl", 2, 5));
+        assertEquals(Collections.singletonList("help"), trie.search("help", 0, 5));
+        assertEquals(Collections.emptyList(), trie.search("version", 2, 5));
+        assertEquals(Collections.emptyList(), trie.search("", 2, 5));
+    }
+
+    @Test
+    public void searchOrdersByDistanceThenName() {
+        NameTrie<String> trie = build("list", "lint", "last", "lost", "load");
+
+        assertEquals(Arrays.asList("list", "last", "lint", "lost"), trie.search("list", 1, 10));
+        assertEquals(Arrays.asList("list", "last"), trie.search("list", 1, 2));
+    }
+
+    @Test
+    public void searchMatchesBruteForceLevenshtein() {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            Map<String, String> entries = new TreeMap<>();
+            int count = random.nextInt(20);
+            for (int i = 0; i < count; i++) {
+                String name = randomName(random);
+                entries.put(name, name);
+            }
+            NameTrie<String> trie = NameTrie.build(entries);
+            for (int q = 0; q < 10; q++) {
+                String query = randomName(random);
+                int maxDistance = random.nextInt(4);
+                assertEquals(query + " within " + maxDistance + " of " + entries.keySet(),
+                        bruteForce(entries.keySet(), query, maxDistance), trie.search(query, maxDistance, 100));
+            }
+        }
+    }
+
+    @Test
+    public void findAndCollectByPrefix() {
+        NameTrie<String> trie = build("todo", "todolist", "top", "version");
+
+        NameTrie.Position<String> position = trie.find("to");
+        assertNotNull(position);
+        assertEquals(Arrays.asList("todo", "todolist", "top"), trie.collect(position, v -> true, 10));
+        assertEquals(Collections.singletonList("todolist"),
+                trie.collect(trie.find(position, "dol"), v -> true, 10));
+        assertEquals(Collections.singletonList("top"), trie.collect(position, v -> v.startsWith("top"), 10));
+        assertNull(trie.find("x"));
+    }
+
+    private static NameTrie<String> build(String... names) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (String name : names) {
+            entries.put(name, name);
+        }
+        return NameTrie.build(entries);
+    }
+
+    private static String randomName(Random random) {
+        char[] chars = new char[random.nextInt(7)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(chars);
+    }
+
+    private static List<String> bruteForce(Iterable<String> names, String query, int maxDistance) {
+        List<String> result = new ArrayList<>();
+        for (String name : names) {
+            if (distance(name, query) <= maxDistance) {
+                result.add(name);
+            }
+        }
+        result.sort((a, b) -> {
+            int diff = Integer.compare(distance(a, query), distance(b, query));
+            return diff != 0 ? diff : a.compareTo(b);
+        });
+        return result;
+    }
+
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,85 @@
+package cn.lucas.commandflow.journal;
+
+import cn.lucas.commandflow.model.CommandResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CommandJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appendedRecordsAreReadBack() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        CommandJournal journal = new CommandJournal.Builder(directory).open();
+        journal.append(1, "alice", "todo add milk", "todo add", CommandResult.Status.SUCCESS);
+        journal.append(2, null, "nosuch", "", CommandResult.Status.ERROR);
+        journal.flush();
+        journal.close();
+
+        List<JournalRecord> records = new JournalReader(directory).read(0, Long.MAX_VALUE);
+        assertEquals(2, records.size());
+        assertEquals("alice", records.get(0).getSenderId());
+        assertEquals("todo add", records.get(0).getCommand());
+        assertEquals(CommandResult.Status.ERROR, records.get(1).getStatus());
+        assertEquals(0, journal.getDroppedCount());
+    }
+
+    @Test
+    public void appendAfterCloseIsDropped() throws Exception {
+        CommandJournal journal = new CommandJournal.Builder(folder.newFolder().toPath()).open();
+        journal.close();
+        journal.append(1, null, "version", "version", CommandResult.Status.SUCCESS);
+
+        assertEquals(0, journal.getAppendedCount());
+        assertEquals(1, journal.getDroppedCount());
+    }
+
+    /**
+     * 关闭与并发追加竞争时, 每条记录要么被写入要么计为丢弃, 追加线程不会阻塞
+     */
+    @Test(timeout = 30000)
+    public void closeRacingWithAppendersAccountsForEveryRecord() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Path directory = folder.newFolder().toPath();
+            CommandJournal journal = new CommandJournal.Builder(directory).queueCapacity(16).open();
+            int threads = 4;
+            int perThread = 500;
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] appenders = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                appenders[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append(i, null, "noop", "noop", CommandResult.Status.SUCCESS);
+                    }
+                });
+                appenders[t].start();
+            }
+            start.countDown();
+            TimeUnit.MICROSECONDS.sleep(round * 50);
+            journal.close();
+            for (Thread appender : appenders) {
+                appender.join(10000);
+                assertFalse(appender.isAlive());
+            }
+
+            int written = new JournalReader(directory).read(0, Long.MAX_VALUE).size();
+            assertEquals(threads * perThread, written + journal.getDroppedCount());
+            assertEquals(0, journal.getQueuedCount());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package cn.lucas.commandflow.pipeline;
+
+import cn.lucas.commandflow.model.CommandResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PipeTest {
+
+    @Test(timeout = 10000)
+    public void writerWaitsWhileBufferIsFull() throws Exception {
+        Pipe pipe = new Pipe(2);
+        AtomicInteger written = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                pipe.write(i);
+                written.incrementAndGet();
+            }
+            pipe.close(CommandResult.success());
+        });
+        writer.start();
+
+        waitUntil(() -> written.get() == 2);
+        Thread.sleep(100);
+        assertEquals(2, written.get());
+
+        List<Object> elements = new ArrayList<>();
+        pipe.iterator().forEachRemaining(elements::add);
+        writer.join();
+        assertEquals(Arrays.<Object>asList(0, 1, 2, 3, 4), elements);
+    }
+
+    @Test(timeout = 10000)
+    public void abortWakesBlockedWriterAndRunsCallback() throws Exception {
+        Pipe pipe = new Pipe(1);
+        AtomicBoolean aborted = new AtomicBoolean();
+        pipe.onAbort(() -> aborted.set(true));
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                while (true) {
+                    pipe.write("x");
+                }
+            } catch (CancellationException e) {
+                cancelled.countDown();
+            }
+        });
+        writer.start();
+
+        Thread.sleep(50);
+        pipe.abort();
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertTrue(aborted.get());
+        assertTrue(pipe.isAborted());
+    }
+
+    @Test
+    public void abortAfterCloseIsNotAnAbort() {
+        Pipe pipe = new Pipe(4);
+        pipe.write("a");
+        pipe.close(CommandResult.success());
+        pipe.abort();
+
+        assertFalse(pipe.isAborted());
+    }
+
+    @Test
+    public void onAbortRunsImmediatelyWhenAlreadyAborted() {
+        Pipe pipe = new Pipe(4);
+        pipe.abort();
+        AtomicBoolean called = new AtomicBoolean();
+        pipe.onAbort(() -> called.set(true));
+
+        assertTrue(called.get());
+        try {
+            pipe.write("late");
+            fail();
+        } catch (CancellationException expected) {
+        }
+    }
+
+    @Test
+    public void nonBlockingPipeFailsWhenFull() {
+        Pipe pipe = new Pipe(2, false);
+        pipe.write(1);
+        pipe.write(2);
+        try {
+            pipe.write(3);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        pipe.close(CommandResult.success());
+        assertEquals(Arrays.<Object>asList(1, 2), pipe.collect());
+    }
+
+    @Test
+    public void collectFallsBackToUpstreamData() {
+        Pipe pipe = new Pipe(4);
+        pipe.close(CommandResult.success("", Arrays.asList("a", "b")));
+
+        assertEquals(Arrays.asList("a", "b"), pipe.collect());
+    }
+
+    @Test
+    public void iteratorFallsBackToElementsOfUpstreamData() {
+        assertEquals(Arrays.<Object>asList("a", "b"), drain(closedWith(new String[]{"a", "b"})));
+        assertEquals(Arrays.<Object>asList(1, 2), drain(closedWith(Stream.of(1, 2))));
+        assertEquals(Arrays.<Object>asList(1, 2), drain(closedWith(Arrays.asList(1, 2).iterator())));
+        assertEquals(Collections.<Object>singletonList("one"), drain(closedWith("one")));
+        assertEquals(Collections.emptyList(), drain(closedWith(null)));
+    }
+
+    @Test
+    public void writtenElementsTakePrecedenceOverData() {
+        Pipe pipe = new Pipe(4);
+        pipe.write("emitted");
+        pipe.close(CommandResult.success("", Arrays.asList("ignored")));
+
+        assertEquals(Collections.<Object>singletonList("emitted"), drain(pipe));
+    }
+
+    private static Pipe closedWith(Object data) {
+        Pipe pipe = new Pipe(4);
+        pipe.close(CommandResult.success("", data));
+        return pipe;
+    }
+
+    private static List<Object> drain(Pipe pipe) {
+        List<Object> elements = new ArrayList<>();
+        Iterator<Object> iterator = pipe.iterator();
+        iterator.forEachRemaining(elements::add);
+        return elements;
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package cn.lucas.commandflow.pipeline;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class PipelineTest {
+
+    @Test
+    public void plainCommandIsNotAPipeline() {
+        assertNull(Pipeline.parse("todo add milk"));
+        assertNull(Pipeline.parse("echo 'a | b' \"c && d\" e\\;f"));
+    }
+
+    @Test
+    public void pipesBindTighterThanOperators() {
+        Pipeline pipeline = Pipeline.parse("a | b && c || d ; e | f");
+        List<Pipeline.Segment> segments = pipeline.getSegments();
+
+        assertEquals(4, segments.size());
+        assertSegment(segments.get(0), Pipeline.Operator.SEQUENCE, "a", "b");
+        assertSegment(segments.get(1), Pipeline.Operator.AND, "c");
+        assertSegment(segments.get(2), Pipeline.Operator.OR, "d");
+        assertSegment(segments.get(3), Pipeline.Operator.SEQUENCE, "e", "f");
+    }
+
+    @Test
+    public void trailingSemicolonIsAllowed() {
+        Pipeline pipeline = Pipeline.parse("a ;");
+
+        assertEquals(1, pipeline.getSegments().size());
+        assertSegment(pipeline.getSegments().get(0), Pipeline.Operator.SEQUENCE, "a");
+    }
+
+    @Test
+    public void missingCommandIsRejected() {
+        for (String line : Arrays.asList("| a", "a |", "a && ", "a || || b", "; a")) {
+            try {
+                Pipeline.parse(line);
+                fail(line);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    private static void assertSegment(Pipeline.Segment segment, Pipeline.Operator operator, String... stages) {
+        assertEquals(operator, segment.getOperator());
+        assertEquals(stages.length == 1 ? Collections.singletonList(stages[0]) : Arrays.asList(stages),
+                segment.getStages());
+    }
+}
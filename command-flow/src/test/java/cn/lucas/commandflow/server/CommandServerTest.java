@@ -0,0 +1,204 @@
+package cn.lucas.commandflow.server;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.annotation.Command;
+import cn.lucas.commandflow.model.CommandContext;
+import cn.lucas.commandflow.model.CommandResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CommandServerTest {
+    private CommandFlow commandFlow;
+    private TestCommands commands;
+    private CommandServer server;
+
+    @Before
+    public void setUp() {
+        commandFlow = new CommandFlow();
+        commands = new TestCommands();
+        commandFlow.registerHandler(commands);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        commandFlow.stop();
+    }
+
+    @Test(timeout = 10000)
+    public void eachLineIsExecutedInOrder() throws IOException {
+        start(new CommandServer.Builder(commandFlow));
+
+        try (Socket socket = connect()) {
+            send(socket, "echo a\r\necho b\n\n  echo c  \n");
+            socket.shutdownOutput();
+
+            assertEquals(Arrays.asList("SUCCESS: a", "SUCCESS: b", "SUCCESS: c"), readAll(socket));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void lineBreaksInResultsAreEscaped() throws IOException {
+        start(new CommandServer.Builder(commandFlow));
+
+        try (Socket socket = connect()) {
+            send(socket, "lines\n");
+            socket.shutdownOutput();
+
+            assertEquals(Arrays.asList("SUCCESS: first\\nsecond\\r\\nback\\\\slash"), readAll(socket));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void trailingPartialLineIsExecutedOnHalfClose() throws IOException {
+        start(new CommandServer.Builder(commandFlow));
+
+        try (Socket socket = connect()) {
+            send(socket, "echo first\necho tail");
+            socket.shutdownOutput();
+
+            assertEquals(Arrays.asList("SUCCESS: first", "SUCCESS: tail"), readAll(socket));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void overlongLineClosesTheConnection() throws IOException {
+        start(new CommandServer.Builder(commandFlow).bufferSize(64));
+
+        try (Socket socket = connect()) {
+            char[] line = new char[200];
+            Arrays.fill(line, 'x');
+            send(socket, "echo ok\necho " + new String(line) + "\necho never\n");
+
+            List<String> lines = readAll(socket);
+            assertEquals(2, lines.size());
+            assertEquals("SUCCESS: ok", lines.get(0));
+            assertTrue(lines.get(1), lines.get(1).startsWith("SYNTAX_ERROR: 命令过长"));
+        }
+        assertEquals(0, waitForSessions(0));
+    }
+
+    @Test(timeout = 10000)
+    public void senderIsCreatedPerSession() throws IOException {
+        start(new CommandServer.Builder(commandFlow).sender(session -> "session-" + session.getId()));
+
+        try (Socket socket = connect()) {
+            send(socket, "whoami\n");
+            socket.shutdownOutput();
+
+            List<String> lines = readAll(socket);
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0), lines.get(0).startsWith("SUCCESS: session-"));
+        }
+    }
+
+    /**
+     * 客户端不读取时, 未发送的结果达到上限后服务端停止执行该连接的命令, 客户端开始读取后继续执行
+     */
+    @Test(timeout = 30000)
+    public void unsentBytesCapPausesExecution() throws Exception {
+        start(new CommandServer.Builder(commandFlow).maxPendingWriteBytes(64 * 1024));
+        int total = 200;
+
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(server.getLocalAddress());
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < total; i++) {
+                lines.append("big\n");
+            }
+            send(socket, lines.toString());
+            socket.shutdownOutput();
+
+            // 等待执行停在上限处
+            int executed;
+            do {
+                executed = commands.bigCount.get();
+                Thread.sleep(300);
+            } while (executed != commands.bigCount.get());
+            assertTrue("executed " + executed, executed < total);
+
+            List<String> results = readAll(socket);
+            assertEquals(total, results.size());
+            assertEquals(total, commands.bigCount.get());
+        }
+    }
+
+    private void start(CommandServer.Builder builder) throws IOException {
+        server = builder.build().start();
+    }
+
+    private Socket connect() throws IOException {
+        InetSocketAddress address = (InetSocketAddress) server.getLocalAddress();
+        return new Socket(address.getAddress(), address.getPort());
+    }
+
+    private int waitForSessions(int expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getSessionCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        return server.getSessionCount();
+    }
+
+    private static void send(Socket socket, String text) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static List<String> readAll(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    public static class TestCommands {
+        private static final String BIG = new String(new char[256 * 1024]).replace('\0', 'x');
+
+        private final AtomicInteger bigCount = new AtomicInteger();
+
+        @Command(name = "echo")
+        public CommandResult echo(CommandContext context) {
+            return CommandResult.success(String.join(" ", context.getArgs()));
+        }
+
+        @Command(name = "lines")
+        public CommandResult lines() {
+            return CommandResult.success("first\nsecond\r\nback\\slash");
+        }
+
+        @Command(name = "whoami")
+        public CommandResult whoami(CommandContext context) {
+            return CommandResult.success(String.valueOf(context.getSender()));
+        }
+
+        @Command(name = "big")
+        public CommandResult big() {
+            bigCount.incrementAndGet();
+            return CommandResult.success(BIG);
+        }
+    }
+}
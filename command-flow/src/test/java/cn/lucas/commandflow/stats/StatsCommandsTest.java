@@ -0,0 +1,85 @@
+package cn.lucas.commandflow.stats;
+
+import cn.lucas.commandflow.CommandFlow;
+import cn.lucas.commandflow.annotation.Command;
+import cn.lucas.commandflow.annotation.SubCommand;
+import cn.lucas.commandflow.model.CommandResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StatsCommandsTest {
+    private CommandFlow commandFlow;
+
+    @Before
+    public void setUp() {
+        commandFlow = new CommandFlow();
+        commandFlow.registerHandler(new StatsCommands(commandFlow));
+        commandFlow.registerHandler(new TodoCommands());
+        commandFlow.execute("todo");
+        commandFlow.execute("todo add");
+        commandFlow.execute("todolist");
+    }
+
+    @After
+    public void tearDown() {
+        commandFlow.stop();
+    }
+
+    @Test
+    public void filterMatchesTheCommandAndItsSubCommandsOnly() {
+        String output = commandFlow.execute("stats todo").getMessage();
+
+        assertTrue(output, hasRow(output, "todo"));
+        assertTrue(output, hasRow(output, "todo add"));
+        assertFalse(output, hasRow(output, "todolist"));
+    }
+
+    @Test
+    public void filterBySubCommandPath() {
+        String output = commandFlow.execute("stats todo add").getMessage();
+
+        assertTrue(output, hasRow(output, "todo add"));
+        assertFalse(output, hasRow(output, "todo"));
+    }
+
+    @Test
+    public void noFilterListsInvokedCommands() {
+        String output = commandFlow.execute("stats").getMessage();
+
+        assertTrue(output, hasRow(output, "todo"));
+        assertTrue(output, hasRow(output, "todo add"));
+        assertTrue(output, hasRow(output, "todolist"));
+    }
+
+    private static boolean hasRow(String output, String path) {
+        for (String line : output.split("\n")) {
+            if (line.matches(Pattern.quote(path) + " +\\d+ .*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class TodoCommands {
+        @Command(name = "todo")
+        public CommandResult todo() {
+            return CommandResult.success();
+        }
+
+        @SubCommand(name = "add", parent = "todo")
+        public CommandResult add() {
+            return CommandResult.success();
+        }
+
+        @Command(name = "todolist")
+        public CommandResult todoList() {
+            return CommandResult.success();
+        }
+    }
+}